@@ -0,0 +1,176 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.bench.SyntheticData;
+import ch.epfl.rigel.coordinates.CartesianCoordinates;
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+//benchmarks of the catalogue loading, the models and the observed sky, on synthetic catalogues
+//by Jiabao WEN
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class AstronomyBenchmarks {
+
+    private final static ZonedDateTime WHEN = ZonedDateTime.parse("2020-04-17T21:00:00+02:00");
+    private final static GeographicCoordinates WHERE = GeographicCoordinates.ofDeg(6.57, 46.52);
+    private final static StereographicProjection PROJECTION = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 45));
+
+    @Benchmark
+    public Sun sunModelAt(Models models) {
+        return SunModel.SUN.at(models.daySinceJ2010, models.conversion);
+    }
+
+    @Benchmark
+    public Moon moonModelAt(Models models) {
+        return MoonModel.MOON.at(models.daySinceJ2010, models.conversion);
+    }
+
+    @Benchmark
+    public Planet jupiterModelAt(Models models) {
+        return PlanetModel.JUPITER.at(models.daySinceJ2010, models.conversion);
+    }
+
+    @Benchmark
+    public Planet mercuryModelAt(Models models) {
+        return PlanetModel.MERCURY.at(models.daySinceJ2010, models.conversion);
+    }
+
+    @Benchmark
+    public StarCatalogue.Builder hygDatabaseLoad(Catalogue catalogue) throws IOException {
+        return new StarCatalogue.Builder().loadFrom(new ByteArrayInputStream(catalogue.hyg), HygDatabaseLoader.INSTANCE);
+    }
+
+    @Benchmark
+    public StarCatalogue.Builder hygDatabaseLoadFiltered(Filtered filtered) throws IOException {
+        return new StarCatalogue.Builder().loadFrom(new ByteArrayInputStream(filtered.hyg), filtered.loader);
+    }
+
+    @Benchmark
+    public StarCatalogue.Builder asterismLoad(Catalogue catalogue) throws IOException {
+        StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        catalogue.loaded.stars().forEach(builder::addStar);
+        return builder.loadFrom(new ByteArrayInputStream(catalogue.asterisms), AsterismLoader.INSTANCE);
+    }
+
+    @Benchmark
+    public StarCatalogue starCatalogueNew(Catalogue catalogue) {
+        return new StarCatalogue(catalogue.catalogue.stars(), catalogue.catalogueAsterisms);
+    }
+
+    @Benchmark
+    public ObservedSky observedSkyNew(Catalogue catalogue) {
+        return new ObservedSky(WHEN, WHERE, PROJECTION, catalogue.catalogue);
+    }
+
+    @Benchmark
+    public ObservedSky observedSkyNewBuffered(Catalogue catalogue) {
+        return new ObservedSky(SolarSystem.at(WHEN), WHERE, PROJECTION, catalogue.catalogue, Atmosphere.NONE,
+                catalogue.buffers);
+    }
+
+    @Benchmark
+    public ObservedSky observedSkyNewAtmosphere(Catalogue catalogue) {
+        return new ObservedSky(SolarSystem.at(WHEN), WHERE, PROJECTION, catalogue.catalogue, Atmosphere.STANDARD);
+    }
+
+    @Benchmark
+    public ObservedSky observedSkyInterpolate(Catalogue catalogue) {
+        return ObservedSky.interpolate(catalogue.from, catalogue.to, 0.5, catalogue.buffers);
+    }
+
+    @Benchmark
+    public Optional<CelestialObject> observedSkyObjectClosestTo(Catalogue catalogue) {
+        return catalogue.sky.objectClosestTo(catalogue.point, 0.05);
+    }
+
+    //the moment of the models
+    //by Jiabao WEN
+    @State(Scope.Thread)
+    public static class Models {
+        private double daySinceJ2010;
+        private EclipticToEquatorialConversion conversion;
+
+        @Setup
+        public void setUp() {
+            daySinceJ2010 = Epoch.J2010.daysUntil(WHEN);
+            conversion = new EclipticToEquatorialConversion(WHEN);
+        }
+    }
+
+    //a synthetic catalogue of the given size, loaded and observed
+    //by Jiabao WEN
+    @State(Scope.Thread)
+    public static class Catalogue {
+        @Param({"1000", "10000", "100000"})
+        private int size;
+
+        private byte[] hyg, asterisms;
+        private StarCatalogue.Builder loaded;
+        private StarCatalogue catalogue;
+        private List<Asterism> catalogueAsterisms;
+        private ObservedSky.Buffers buffers;
+        private ObservedSky from, to, sky;
+        private final CartesianCoordinates point = CartesianCoordinates.of(0.1, 0.2);
+
+        @Setup
+        public void setUp() throws IOException {
+            hyg = SyntheticData.hygDatabase(size);
+            asterisms = SyntheticData.asterisms(size, 88);
+            loaded = new StarCatalogue.Builder().loadFrom(new ByteArrayInputStream(hyg), HygDatabaseLoader.INSTANCE);
+
+            catalogue = SyntheticData.catalogue(size);
+            catalogueAsterisms = List.copyOf(catalogue.asterisms());
+            buffers = new ObservedSky.Buffers();
+            ObservedSky.Buffers keyBuffers = new ObservedSky.Buffers();
+            from = new ObservedSky(SolarSystem.at(WHEN), WHERE, PROJECTION, catalogue, Atmosphere.STANDARD, keyBuffers);
+            to = new ObservedSky(SolarSystem.at(WHEN.plusMinutes(1)), WHERE, PROJECTION, catalogue,
+                    Atmosphere.STANDARD, keyBuffers);
+            sky = new ObservedSky(WHEN, WHERE, PROJECTION, catalogue);
+        }
+    }
+
+    //a synthetic database of the given size, loaded down to a limiting magnitude
+    //by Jiabao WEN
+    @State(Scope.Thread)
+    public static class Filtered {
+        @Param({"1000", "10000", "100000"})
+        private int size;
+        @Param({"2", "4", "6"})
+        private double limitingMagnitude;
+
+        private byte[] hyg;
+        private StarCatalogue.Loader loader;
+
+        @Setup
+        public void setUp() throws IOException {
+            hyg = SyntheticData.hygDatabase(size);
+            byte[] asterisms = SyntheticData.asterisms(size, 88);
+            loader = HygDatabaseLoader.INSTANCE.filtered(StarFilter
+                    .brighterThan(limitingMagnitude)
+                    .keeping(AsterismLoader.INSTANCE.parse(new ByteArrayInputStream(asterisms))));
+        }
+    }
+}
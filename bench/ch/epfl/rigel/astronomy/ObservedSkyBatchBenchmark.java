@@ -0,0 +1,56 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.bench.SyntheticData;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+//measures the throughput (observers per second) of ObservedSkyBatch against one ObservedSky per observer
+//usage : ObservedSkyBatchBenchmark [stars] [observers] [threads]
+//by Jiabao WEN
+public final class ObservedSkyBatchBenchmark {
+
+    private final static int ROUNDS = 5;
+
+    private ObservedSkyBatchBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int starCount = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int observerCount = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        StarCatalogue catalogue = SyntheticData.catalogue(starCount);
+
+        Random random = new Random(2020);
+        List<GeographicCoordinates> observers = new ArrayList<>();
+        for (int i = 0; i < observerCount; i++) {
+            observers.add(GeographicCoordinates.ofDeg(random.nextDouble() * 360 - 180, random.nextDouble() * 180 - 90));
+        }
+        StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(0, 90));
+        ZonedDateTime when = ZonedDateTime.parse("2020-04-17T21:00:00+02:00");
+
+        try (ObservedSkyBatch batch = new ObservedSkyBatch(catalogue, threads)) {
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                for (GeographicCoordinates observer : observers) {
+                    new ObservedSky(when, observer, projection, catalogue);
+                }
+                long sequential = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                batch.positions(when, observers, projection);
+                long batched = System.nanoTime() - start;
+
+                System.out.printf(Locale.ROOT, "round %d : ObservedSky %.0f observers/s, batch (%d threads) %.0f observers/s%n",
+                        round, observerCount / (sequential * 1e-9), threads, observerCount / (batched * 1e-9));
+            }
+        }
+    }
+}
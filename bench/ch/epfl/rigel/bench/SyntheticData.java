@@ -0,0 +1,87 @@
+package ch.epfl.rigel.bench;
+
+import ch.epfl.rigel.astronomy.AsterismLoader;
+import ch.epfl.rigel.astronomy.HygDatabaseLoader;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+//generates reproducible catalogues in the formats of hygdata_v3.csv and asterisms.txt,
+//so that the benchmarks don't depend on the resources of the application
+//by Jiabao WEN
+public final class SyntheticData {
+
+    private final static int HYG_COLUMNS = 37;
+    private final static String[] CONSTELLATIONS = {"Ori", "UMa", "Cas", "Cyg", "Lyr", "Sco", "Tau", "Gem", "Leo", "And"};
+    private final static int STARS_PER_ASTERISM = 6;
+
+    private SyntheticData() {
+    }
+
+    /**
+     * @param stars number of stars
+     * @return a HYG database with the given number of stars, one in ten having a proper name
+     */
+    public static byte[] hygDatabase(int stars) {
+        Random random = new Random(stars);
+        StringBuilder csv = new StringBuilder("id,hip,hd,hr,gl,bf,proper,ra,dec,dist,pmra,pmdec,rv,mag,absmag,spect,ci,"
+                + "x,y,z,vx,vy,vz,rarad,decrad,pmrarad,pmdecrad,bayer,flam,con,comp,comp_primary,base,lum,var,var_min,var_max\n");
+        String[] line = new String[HYG_COLUMNS];
+        for (int i = 0; i < stars; i++) {
+            Arrays.fill(line, "");
+            line[0] = Integer.toString(i);
+            line[1] = Integer.toString(i + 1);
+            line[6] = i % 10 == 0 ? "Star" + i : "";
+            line[10] = String.format(Locale.ROOT, "%.2f", random.nextGaussian() * 20);
+            line[11] = String.format(Locale.ROOT, "%.2f", random.nextGaussian() * 20);
+            line[13] = String.format(Locale.ROOT, "%.2f", random.nextDouble() * 9 - 1.5);
+            line[16] = String.format(Locale.ROOT, "%.3f", random.nextDouble() * 2);
+            line[23] = String.format(Locale.ROOT, "%.8f", random.nextDouble() * 2 * Math.PI);
+            line[24] = String.format(Locale.ROOT, "%.8f", (random.nextDouble() - 0.5) * Math.PI);
+            line[27] = i % 3 == 0 ? "Alp" : "";
+            line[29] = CONSTELLATIONS[i % CONSTELLATIONS.length];
+            csv.append(String.join(",", line)).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @param stars     number of stars of the HYG database the asterisms refer to
+     * @param asterisms number of asterisms
+     * @return asterisms made of consecutive Hipparcos numbers
+     */
+    public static byte[] asterisms(int stars, int asterisms) {
+        StringBuilder txt = new StringBuilder();
+        for (int a = 0; a < asterisms; a++) {
+            for (int s = 0; s < STARS_PER_ASTERISM; s++) {
+                if (s > 0) {
+                    txt.append(',');
+                }
+                txt.append((a * STARS_PER_ASTERISM + s) % stars + 1);
+            }
+            txt.append('\n');
+        }
+        return txt.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @param stars number of stars
+     * @return a catalogue of the given number of stars and 88 asterisms, loaded with the application's loaders
+     */
+    public static StarCatalogue catalogue(int stars) {
+        try {
+            return new StarCatalogue.Builder()
+                    .loadFrom(new ByteArrayInputStream(hygDatabase(stars)), HygDatabaseLoader.INSTANCE)
+                    .loadFrom(new ByteArrayInputStream(asterisms(stars, 88)), AsterismLoader.INSTANCE)
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package ch.epfl.rigel.coordinates;
+
+import ch.epfl.rigel.math.Angle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+//benchmarks of the conversions between coordinate systems, one coordinate at a time and in batches
+//by Jiabao WEN
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class CoordinatesBenchmarks {
+
+    private final static ZonedDateTime WHEN = ZonedDateTime.parse("2020-04-17T21:00:00+02:00");
+    private final static GeographicCoordinates WHERE = GeographicCoordinates.ofDeg(6.57, 46.52);
+    private final static int BATCH_SIZE = 10_000;
+
+    private final EclipticCoordinates ecl = EclipticCoordinates.of(1.2, 0.1);
+    private final EquatorialCoordinates equ = EquatorialCoordinates.of(1.5, 0.4);
+    private final HorizontalCoordinates hor = HorizontalCoordinates.of(3.5, 0.6);
+    private final CartesianCoordinates xy = CartesianCoordinates.of(0.2, 0.1);
+
+    private EclipticToEquatorialConversion eclipticToEquatorial;
+    private EquatorialToHorizontalConversion equatorialToHorizontal;
+    private StereographicProjection projection;
+    private double[] equatorial, horizontal, out;
+
+    @Setup
+    public void setUp() {
+        eclipticToEquatorial = new EclipticToEquatorialConversion(WHEN);
+        equatorialToHorizontal = new EquatorialToHorizontalConversion(WHEN, WHERE);
+        projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 45));
+
+        equatorial = new double[2 * BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            equatorial[2 * i] = Angle.TAU * i / BATCH_SIZE;
+            equatorial[2 * i + 1] = Math.asin(2.0 * i / BATCH_SIZE - 1);
+        }
+        horizontal = new double[2 * BATCH_SIZE];
+        equatorialToHorizontal.applyTo(equatorial, horizontal, 0, BATCH_SIZE);
+        out = new double[2 * BATCH_SIZE];
+    }
+
+    @Benchmark
+    public EclipticToEquatorialConversion eclipticToEquatorialNew() {
+        return new EclipticToEquatorialConversion(WHEN);
+    }
+
+    @Benchmark
+    public EquatorialCoordinates eclipticToEquatorialApply() {
+        return eclipticToEquatorial.apply(ecl);
+    }
+
+    @Benchmark
+    public EquatorialToHorizontalConversion equatorialToHorizontalNew() {
+        return new EquatorialToHorizontalConversion(WHEN, WHERE);
+    }
+
+    @Benchmark
+    public HorizontalCoordinates equatorialToHorizontalApply() {
+        return equatorialToHorizontal.apply(equ);
+    }
+
+    @Benchmark
+    public CartesianCoordinates projectionApply() {
+        return projection.apply(hor);
+    }
+
+    @Benchmark
+    public HorizontalCoordinates projectionInverseApply() {
+        return projection.inverseApply(xy);
+    }
+
+    @Benchmark
+    public double[] eclipticToEquatorialApplyBatch() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            EquatorialCoordinates e = eclipticToEquatorial.apply(EclipticCoordinates.of(equatorial[2 * i], equatorial[2 * i + 1]));
+            out[2 * i] = e.ra();
+            out[2 * i + 1] = e.dec();
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] eclipticToEquatorialApplyTo() {
+        eclipticToEquatorial.applyTo(equatorial, out, 0, BATCH_SIZE);
+        return out;
+    }
+
+    @Benchmark
+    public double[] equatorialToHorizontalApplyBatch() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            HorizontalCoordinates h = equatorialToHorizontal.apply(EquatorialCoordinates.of(equatorial[2 * i], equatorial[2 * i + 1]));
+            out[2 * i] = h.az();
+            out[2 * i + 1] = h.alt();
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] equatorialToHorizontalApplyTo() {
+        equatorialToHorizontal.applyTo(equatorial, out, 0, BATCH_SIZE);
+        return out;
+    }
+
+    @Benchmark
+    public double[] projectionApplyBatch() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            CartesianCoordinates c = projection.apply(HorizontalCoordinates.of(horizontal[2 * i], horizontal[2 * i + 1]));
+            out[2 * i] = c.x();
+            out[2 * i + 1] = c.y();
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] projectionApplyTo() {
+        projection.applyTo(horizontal, out, 0, BATCH_SIZE);
+        return out;
+    }
+}
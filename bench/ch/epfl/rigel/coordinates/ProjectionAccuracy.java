@@ -0,0 +1,75 @@
+package ch.epfl.rigel.coordinates;
+
+import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.math.FastTrig;
+
+import java.time.ZonedDateTime;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.DoubleUnaryOperator;
+
+//validates the approximations of FastTrig against Math, and the batch projection of the stars against the exact one
+//the error of the projection is given in pixels, for a canvas of 800 pixels with the smallest field of view
+//usage : ProjectionAccuracy [points]
+//by Jiabao WEN
+public final class ProjectionAccuracy {
+
+    private final static double CANVAS_WIDTH = 800;
+    private final static double FIELD_OF_VIEW_DEG = 30;
+    private final static ZonedDateTime WHEN = ZonedDateTime.parse("2020-04-17T21:00:00+02:00");
+
+    private ProjectionAccuracy() {
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(2020);
+
+        System.out.printf(Locale.ROOT, "sin   %.3g%n", error(FastTrig::sin, Math::sin, random, -50, 50, count));
+        System.out.printf(Locale.ROOT, "cos   %.3g%n", error(FastTrig::cos, Math::cos, random, -50, 50, count));
+        System.out.printf(Locale.ROOT, "tan   %.3g%n", error(FastTrig::tan, Math::tan, random, -1.5, 1.5, count));
+        System.out.printf(Locale.ROOT, "asin  %.3g%n", error(FastTrig::asin, Math::asin, random, -1, 1, count));
+        System.out.printf(Locale.ROOT, "atan  %.3g%n", error(FastTrig::atan, Math::atan, random, -100, 100, count));
+
+        double[] equatorial = new double[2 * count];
+        for (int i = 0; i < count; i++) {
+            equatorial[2 * i] = random.nextDouble() * Angle.TAU;
+            equatorial[2 * i + 1] = Math.asin(2 * random.nextDouble() - 1);
+        }
+        double scale = CANVAS_WIDTH / 2 / Math.tan(Angle.ofDeg(FIELD_OF_VIEW_DEG) / 4);
+        double halfWidth = CANVAS_WIDTH / 2 / scale;
+
+        double maxError = 0;
+        for (int observer = 0; observer < 10; observer++) {
+            GeographicCoordinates where = GeographicCoordinates.ofDeg(random.nextDouble() * 360 - 180,
+                    random.nextDouble() * 180 - 90);
+            EquatorialToHorizontalConversion conversion = new EquatorialToHorizontalConversion(WHEN, where);
+            StereographicProjection projection = new StereographicProjection(
+                    HorizontalCoordinates.ofDeg(random.nextDouble() * 360, random.nextDouble() * 90));
+
+            double[] positions = new double[2 * count];
+            conversion.applyTo(equatorial, positions, 0, count);
+            projection.applyTo(positions, positions, 0, count);
+
+            for (int i = 0; i < count; i++) {
+                CartesianCoordinates exact = projection.apply(conversion.apply(
+                        EquatorialCoordinates.of(equatorial[2 * i], equatorial[2 * i + 1])));
+                if (Math.abs(exact.x()) < halfWidth && Math.abs(exact.y()) < halfWidth) {
+                    double error = Math.hypot(positions[2 * i] - exact.x(), positions[2 * i + 1] - exact.y());
+                    maxError = Math.max(maxError, error * scale);
+                }
+            }
+        }
+        System.out.printf(Locale.ROOT, "projection of the stars %.3g pixel%n", maxError);
+    }
+
+    private static double error(DoubleUnaryOperator fast, DoubleUnaryOperator exact, Random random,
+                                double low, double high, int count) {
+        double maxError = 0;
+        for (int i = 0; i < count; i++) {
+            double x = low + random.nextDouble() * (high - low);
+            maxError = Math.max(maxError, Math.abs(fast.applyAsDouble(x) - exact.applyAsDouble(x)));
+        }
+        return maxError;
+    }
+}
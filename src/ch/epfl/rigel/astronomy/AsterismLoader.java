@@ -1,12 +1,13 @@
 package ch.epfl.rigel.astronomy;
 
+import ch.epfl.rigel.Preconditions;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.List;
 
 //represents a loader of asterism of starcatalogue
 //by Marin Cohu
@@ -22,33 +23,51 @@ public enum AsterismLoader implements StarCatalogue.Loader {
      */
     @Override
     public void load(InputStream inputStream, StarCatalogue.Builder builder) throws IOException {
+        addTo(parse(inputStream), builder);
+    }
 
+    /**
+     * reads the asterisms without resolving their stars, so that it can be done before the stars are loaded
+     *
+     * @param inputStream inputStream
+     * @return for each asterism, the Hipparcos numbers of its stars
+     * @throws IOException in case of error loading
+     */
+    public List<int[]> parse(InputStream inputStream) throws IOException {
         try (BufferedReader in = new BufferedReader(new InputStreamReader(inputStream))) {
 
-            ArrayList<String[]> asterismTable = new ArrayList<>();
+            List<int[]> asterismTable = new ArrayList<>();
 
             String asterismLine;
 
             while ((asterismLine = in.readLine()) != null) {
-                asterismTable.add(asterismLine.split(","));
-            }
-
-            HashMap<Integer, Star> hippMap = new HashMap<>();
-
-            for (Star star : builder.stars()) {
-                hippMap.put(star.hipparcosId(), star);
-            }
-
-            for (String[] asterism : asterismTable) {
-                ArrayList<Star> stars = new ArrayList<>();
-                for (String starHippId : asterism) {
-                    stars.add(hippMap.get(Integer.parseInt(starHippId)));
+                String[] starHippIds = asterismLine.split(",");
+                int[] asterism = new int[starHippIds.length];
+                for (int i = 0; i < starHippIds.length; i++) {
+                    asterism[i] = Integer.parseInt(starHippIds[i]);
                 }
-                builder.addAsterism(new Asterism(stars));
+                asterismTable.add(asterism);
             }
-
+            return asterismTable;
         }
+    }
 
+    /**
+     * @param asterisms for each asterism, the Hipparcos numbers of its stars
+     * @param builder   of the star catalogue, already containing the stars of the asterisms
+     * @throws IllegalArgumentException if a star of an asterism isn't in the builder
+     */
+    public void addTo(List<int[]> asterisms, StarCatalogue.Builder builder) {
+        List<Star> builderStars = builder.stars();
 
+        for (int[] asterism : asterisms) {
+            ArrayList<Star> stars = new ArrayList<>(asterism.length);
+            for (int starHippId : asterism) {
+                int index = builder.starIndex(starHippId);
+                Preconditions.checkArgument(index != -1);
+                stars.add(builderStars.get(index));
+            }
+            builder.addAsterism(new Asterism(stars));
+        }
     }
-}
\ No newline at end of file
+}
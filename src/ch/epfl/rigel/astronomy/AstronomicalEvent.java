@@ -0,0 +1,75 @@
+package ch.epfl.rigel.astronomy;
+
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+//represents an astronomical event (moon phase or twilight) happening at a given instant
+//by Jiabao WEN
+public final class AstronomicalEvent {
+
+    private final Type type;
+    private final ZonedDateTime when;
+
+    /**
+     * @param type type of the event
+     * @param when instant of the event
+     */
+    public AstronomicalEvent(Type type, ZonedDateTime when) {
+        this.type = Objects.requireNonNull(type);
+        this.when = Objects.requireNonNull(when);
+    }
+
+    /**
+     * @return type of the event
+     */
+    public Type type() {
+        return type;
+    }
+
+    /**
+     * @return instant of the event
+     */
+    public ZonedDateTime when() {
+        return when;
+    }
+
+    /**
+     * @see String#toString()
+     */
+    @Override
+    public String toString() {
+        return type + " " + when;
+    }
+
+    //enumeration contains the types of event which can be searched
+    //by Jiabao WEN
+    public enum Type {
+        NEW_MOON("new moon"),
+        FIRST_QUARTER("first quarter"),
+        FULL_MOON("full moon"),
+        LAST_QUARTER("last quarter"),
+        ASTRONOMICAL_DAWN("astronomical dawn"),
+        NAUTICAL_DAWN("nautical dawn"),
+        CIVIL_DAWN("civil dawn"),
+        CIVIL_DUSK("civil dusk"),
+        NAUTICAL_DUSK("nautical dusk"),
+        ASTRONOMICAL_DUSK("astronomical dusk");
+
+        private final String name;
+
+        /**
+         * @param name name of the event
+         */
+        Type(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @see String#toString()
+         */
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
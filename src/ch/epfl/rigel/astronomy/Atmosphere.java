@@ -0,0 +1,125 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.Preconditions;
+import ch.epfl.rigel.math.Angle;
+
+//represents the effects of the atmosphere on the observed objects:
+//the refraction, which raises the objects close to the horizon by about half a degree,
+//and the extinction, which dims the objects according to the airmass they are seen through
+//both are read in lookup tables indexed by the geometric altitude, filled once
+//by Jiabao WEN
+public final class Atmosphere {
+
+    /**
+     * no atmosphere, the altitudes and the magnitudes are left as they are
+     */
+    public final static Atmosphere NONE = new Atmosphere(0, false);
+
+    /**
+     * typical atmosphere of a clear night, with an extinction of 0.2 magnitude per airmass
+     */
+    public final static Atmosphere STANDARD = of(0.2);
+
+    private final static double MIN_ALT_DEG = -90;
+    private final static double STEP_DEG = 0.1;
+    private final static int TABLE_SIZE = (int) Math.round(180 / STEP_DEG) + 1;
+    private final static double STEPS_PER_RAD = 1 / Angle.ofDeg(STEP_DEG);
+    private final static double MIN_ALT = Angle.ofDeg(MIN_ALT_DEG);
+    private final static double MAX_ALT = Angle.TAU / 4;
+
+    //below the horizon the refraction has no meaning, it fades to zero so that the positions stay continuous
+    private final static double REFRACTION_LIMIT_DEG = -2;
+    private final static double REFRACTION_FADE_DEG = 3;
+
+    private final static double[] REFRACTION = new double[TABLE_SIZE];
+    //airmass minus one, zero at the zenith
+    private final static double[] EXTRA_AIRMASS = new double[TABLE_SIZE];
+
+    static {
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            double altDeg = MIN_ALT_DEG + i * STEP_DEG;
+            REFRACTION[i] = refraction(altDeg);
+            EXTRA_AIRMASS[i] = airmass(Math.max(altDeg, 0)) - 1;
+        }
+    }
+
+    private final double extinctionCoefficient;
+    private final boolean refracting;
+
+    private Atmosphere(double extinctionCoefficient, boolean refracting) {
+        this.extinctionCoefficient = extinctionCoefficient;
+        this.refracting = refracting;
+    }
+
+    /**
+     * @param extinctionCoefficient dimming in magnitude per airmass
+     * @return an atmosphere refracting the light and dimming it with the given coefficient
+     * @throws IllegalArgumentException if extinctionCoefficient is negative
+     */
+    public static Atmosphere of(double extinctionCoefficient) {
+        Preconditions.checkArgument(extinctionCoefficient >= 0);
+        return new Atmosphere(extinctionCoefficient, true);
+    }
+
+    /**
+     * @param altitude geometric altitude, in radians
+     * @return the apparent altitude, in radians
+     */
+    public double refract(double altitude) {
+        return refracting ? Math.min(altitude + lookUp(REFRACTION, altitude), MAX_ALT) : altitude;
+    }
+
+    /**
+     * @param altitude geometric altitude, in radians
+     * @return the magnitude added to the magnitude of an object at the given altitude, relative to the zenith,
+     * so that the objects high in the sky keep their magnitude
+     */
+    public double extinction(double altitude) {
+        return extinctionCoefficient * lookUp(EXTRA_AIRMASS, altitude);
+    }
+
+    /**
+     * refracts the altitudes and dims the magnitudes of many objects in one pass
+     *
+     * @param horizontal interleaved azimuths and geometric altitudes, the altitudes are replaced by the apparent ones
+     * @param magnitudes magnitudes of the objects, increased by their extinction, null to only refract the altitudes
+     * @param count      number of objects
+     */
+    void applyTo(double[] horizontal, double[] magnitudes, int count) {
+        if (this == NONE) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            double altitude = horizontal[2 * i + 1];
+            if (magnitudes != null) {
+                magnitudes[i] += extinction(altitude);
+            }
+            horizontal[2 * i + 1] = refract(altitude);
+        }
+    }
+
+    private static double lookUp(double[] table, double altitude) {
+        double position = (Math.max(altitude, MIN_ALT) - MIN_ALT) * STEPS_PER_RAD;
+        int index = Math.min((int) position, TABLE_SIZE - 2);
+        double fraction = position - index;
+        return table[index] + fraction * (table[index + 1] - table[index]);
+    }
+
+    //Sæmundsson's formula, from the geometric altitude, with a fade below the horizon
+    private static double refraction(double altDeg) {
+        double fade = 1;
+        if (altDeg < REFRACTION_LIMIT_DEG) {
+            fade = Math.max(0, 1 - (REFRACTION_LIMIT_DEG - altDeg) / REFRACTION_FADE_DEG);
+            altDeg = REFRACTION_LIMIT_DEG;
+        }
+        double arcmin = 1.02 / Math.tan(Angle.ofDeg(altDeg + 10.3 / (altDeg + 5.11)));
+        //the formula gives a tiny negative refraction at the zenith
+        return fade * Math.max(0, Angle.ofDeg(arcmin / 60));
+    }
+
+    //Kasten and Young's formula, 1 at the zenith and about 38 at the horizon
+    private static double airmass(double altDeg) {
+        double zenithDeg = 90 - altDeg;
+        return 1 / (Math.cos(Angle.ofDeg(zenithDeg)) + 0.50572 * Math.pow(96.07995 - zenithDeg, -1.6364));
+    }
+}
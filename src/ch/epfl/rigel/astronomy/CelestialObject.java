@@ -20,10 +20,25 @@ public abstract class CelestialObject {
      * @param magnitude     magnitude of the object in float
      */
     CelestialObject(String name, EquatorialCoordinates equatorialPos, float angularSize, float magnitude) {
+        this(equatorialPos, angularSize, magnitude, Objects.requireNonNull(name));
+    }
+
+    /**
+     * for the objects which build their name only when it's asked, they must override name()
+     *
+     * @param equatorialPos equatorial coordinates of the object
+     * @param angularSize   angular size of the object in float
+     * @param magnitude     magnitude of the object in float
+     */
+    CelestialObject(EquatorialCoordinates equatorialPos, float angularSize, float magnitude) {
+        this(equatorialPos, angularSize, magnitude, null);
+    }
+
+    private CelestialObject(EquatorialCoordinates equatorialPos, float angularSize, float magnitude, String name) {
 
         Preconditions.checkArgument(angularSize >= 0);
 
-        this.name = Objects.requireNonNull(name);
+        this.name = name;
         this.angularSize = angularSize;
         this.magnitude = magnitude;
         this.equatorialPos = Objects.requireNonNull(equatorialPos);
@@ -0,0 +1,133 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.Preconditions;
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.coordinates.EquatorialToHorizontalConversion;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.math.RightOpenInterval;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
+import static ch.epfl.rigel.astronomy.AstronomicalEvent.Type.*;
+import static ch.epfl.rigel.astronomy.Epoch.J2010;
+
+//searches the instants of moon phases and twilights over a range of time
+//the range is first scanned with a coarse step, then every bracketed event is refined by bisection
+//by Jiabao WEN
+public final class EventFinder {
+
+    private final static double MILLIS_PER_DAY = 1000 * 60 * 60 * 24;
+    private final static double PRECISION = 1.0 / (60 * 60 * 24);   // one second, in days
+    private final static double PHASE_STEP = 1;                       // the elongation grows by about 12° per day
+    private final static double TWILIGHT_STEP = 1.0 / 24;             // one hour, in days
+    private final static RightOpenInterval SYMMETRIC_INTERVAL = RightOpenInterval.symmetric(Angle.TAU);
+
+    private final static AstronomicalEvent.Type[] PHASES = {NEW_MOON, FIRST_QUARTER, FULL_MOON, LAST_QUARTER};
+    private final static double[] TWILIGHT_ALTITUDES = {Angle.ofDeg(-6), Angle.ofDeg(-12), Angle.ofDeg(-18)};
+    private final static AstronomicalEvent.Type[] DAWNS = {CIVIL_DAWN, NAUTICAL_DAWN, ASTRONOMICAL_DAWN};
+    private final static AstronomicalEvent.Type[] DUSKS = {CIVIL_DUSK, NAUTICAL_DUSK, ASTRONOMICAL_DUSK};
+
+    private EventFinder() {
+    }
+
+    /**
+     * @param from beginning of the search
+     * @param to   end of the search
+     * @return new moons, first quarters, full moons and last quarters between from and to, in chronological order
+     * @throws IllegalArgumentException if to is before from
+     */
+    public static List<AstronomicalEvent> moonPhases(ZonedDateTime from, ZonedDateTime to) {
+        Preconditions.checkArgument(!to.isBefore(from));
+        double start = J2010.daysUntil(from);
+        double end = J2010.daysUntil(to);
+        //the elongation in ecliptic longitude doesn't depend on the obliquity, one conversion is enough
+        EclipticToEquatorialConversion conversion = new EclipticToEquatorialConversion(from);
+        DoubleUnaryOperator phaseAngle = d -> MoonModel.MOON.at(d, conversion).phaseAngle();
+
+        List<AstronomicalEvent> events = new ArrayList<>();
+        double low = start;
+        double angleLow = phaseAngle.applyAsDouble(low);
+        while (low < end) {
+            double high = Math.min(low + PHASE_STEP, end);
+            double angleHigh = phaseAngle.applyAsDouble(high);
+            for (int i = 0; i < PHASES.length; i++) {
+                double target = i * Angle.TAU / PHASES.length;
+                //the reduced difference only jumps from +pi to -pi, so a rising zero crossing is the event
+                if (SYMMETRIC_INTERVAL.reduce(angleLow - target) < 0 && SYMMETRIC_INTERVAL.reduce(angleHigh - target) >= 0) {
+                    double root = bisect(d -> SYMMETRIC_INTERVAL.reduce(phaseAngle.applyAsDouble(d) - target), low, high);
+                    events.add(new AstronomicalEvent(PHASES[i], dateOf(from, start, root)));
+                }
+            }
+            low = high;
+            angleLow = angleHigh;
+        }
+        events.sort(Comparator.comparing(AstronomicalEvent::when));
+        return List.copyOf(events);
+    }
+
+    /**
+     * twilights lasting less than an hour (close to the polar circles) can be missed by the coarse scan
+     *
+     * @param from  beginning of the search
+     * @param to    end of the search
+     * @param where position of the observer
+     * @return civil, nautical and astronomical dawns and dusks between from and to, in chronological order
+     * @throws IllegalArgumentException if to is before from
+     */
+    public static List<AstronomicalEvent> twilights(ZonedDateTime from, ZonedDateTime to, GeographicCoordinates where) {
+        Preconditions.checkArgument(!to.isBefore(from));
+        double start = J2010.daysUntil(from);
+        double end = J2010.daysUntil(to);
+        DoubleUnaryOperator sunAltitude = d -> sunAltitude(dateOf(from, start, d), d, where);
+
+        List<AstronomicalEvent> events = new ArrayList<>();
+        double low = start;
+        double altLow = sunAltitude.applyAsDouble(low);
+        while (low < end) {
+            double high = Math.min(low + TWILIGHT_STEP, end);
+            double altHigh = sunAltitude.applyAsDouble(high);
+            for (int i = 0; i < TWILIGHT_ALTITUDES.length; i++) {
+                double altitude = TWILIGHT_ALTITUDES[i];
+                boolean belowLow = altLow < altitude;
+                boolean belowHigh = altHigh < altitude;
+                if (belowLow != belowHigh) {
+                    double root = bisect(d -> sunAltitude.applyAsDouble(d) - altitude, low, high);
+                    events.add(new AstronomicalEvent(belowLow ? DAWNS[i] : DUSKS[i], dateOf(from, start, root)));
+                }
+            }
+            low = high;
+            altLow = altHigh;
+        }
+        events.sort(Comparator.comparing(AstronomicalEvent::when));
+        return List.copyOf(events);
+    }
+
+    private static double sunAltitude(ZonedDateTime when, double daySinceJ2010, GeographicCoordinates where) {
+        Sun sun = SunModel.SUN.at(daySinceJ2010, new EclipticToEquatorialConversion(when));
+        return new EquatorialToHorizontalConversion(when, where).apply(sun.equatorialPos()).alt();
+    }
+
+    //f must change its sign between low and high
+    private static double bisect(DoubleUnaryOperator f, double low, double high) {
+        boolean negativeLow = f.applyAsDouble(low) < 0;
+        while (high - low > PRECISION) {
+            double mid = (low + high) / 2;
+            if ((f.applyAsDouble(mid) < 0) == negativeLow) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    private static ZonedDateTime dateOf(ZonedDateTime from, double start, double daySinceJ2010) {
+        return from.plus(Math.round((daySinceJ2010 - start) * MILLIS_PER_DAY), ChronoUnit.MILLIS);
+    }
+}
@@ -0,0 +1,130 @@
+package ch.epfl.rigel.astronomy;
+
+import java.util.Arrays;
+import java.util.List;
+
+//associates the Hipparcos numbers of stars to their index in a list of stars
+//open addressing with linear probing on primitive arrays, so that no Integer is boxed
+//by Jiabao WEN
+final class HipparcosIndex {
+
+    /**
+     * index returned for a Hipparcos number which doesn't belong to the index
+     */
+    final static int ABSENT = -1;
+
+    private final static int MIN_CAPACITY = 16;
+    //the Hipparcos numbers are positive, -1 marks an empty slot
+    private final static int EMPTY = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    HipparcosIndex() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize number of stars which will be added
+     */
+    HipparcosIndex(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * @param stars a list of stars
+     * @return the index of the given stars; if a Hipparcos number appears many times, the last star is kept
+     */
+    static HipparcosIndex of(List<Star> stars) {
+        HipparcosIndex index = new HipparcosIndex(stars.size());
+        for (int i = 0; i < stars.size(); i++) {
+            index.put(stars.get(i).hipparcosId(), i);
+        }
+        return index;
+    }
+
+    /**
+     * @return an independent copy of this index
+     */
+    HipparcosIndex copy() {
+        HipparcosIndex copy = new HipparcosIndex();
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * @param hipparcosId Hipparcos number
+     * @param index       index of the star in its list, replaces the previous one if any
+     */
+    void put(int hipparcosId, int index) {
+        int slot = slotOf(hipparcosId);
+        if (keys[slot] == EMPTY) {
+            if (2 * (size + 1) > keys.length) {
+                grow();
+                slot = slotOf(hipparcosId);
+            }
+            keys[slot] = hipparcosId;
+            size++;
+        }
+        values[slot] = index;
+    }
+
+    /**
+     * @param hipparcosId Hipparcos number
+     * @return the index of the star with the given Hipparcos number, or ABSENT
+     */
+    int get(int hipparcosId) {
+        if (hipparcosId < 0) {
+            return ABSENT;
+        }
+        int slot = slotOf(hipparcosId);
+        return keys[slot] == EMPTY ? ABSENT : values[slot];
+    }
+
+    //slot containing the key, or the empty slot where it would be inserted
+    private int slotOf(int hipparcosId) {
+        int mask = keys.length - 1;
+        int slot = mix(hipparcosId) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != hipparcosId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(2 * oldKeys.length);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    //the load factor stays below one half
+    private static int capacityFor(int size) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < 2 * size) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    //consecutive Hipparcos numbers would otherwise fill contiguous slots
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
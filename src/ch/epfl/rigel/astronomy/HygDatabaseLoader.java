@@ -8,8 +8,13 @@ import ch.epfl.rigel.math.RightOpenInterval;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 //represents a loader of HYG catalogue
 //by Marin Cohu
@@ -21,6 +26,8 @@ public enum HygDatabaseLoader implements StarCatalogue.Loader {
 
     private final static int HIP = 1;          // Hipparcos number                              ##
     private final static int PROPER = 6;       // Proper name                                   ""
+    private final static int PM_RA = 10;       // Proper motion in RA * cos(dec), in mas/year   ##
+    private final static int PM_DEC = 11;      // Proper motion in declination, in mas/year     ##
     private final static int MAGNITUDE = 13;   // Magnitude                                     ##
     private final static int COLOR_INDEX = 16; // B-V color index                               ##
     private final static int RA_RAD = 23;      // Right ascension in radians                    ##
@@ -31,7 +38,14 @@ public enum HygDatabaseLoader implements StarCatalogue.Loader {
     private final static RightOpenInterval RIGHT_OPEN_INTERVAL = RightOpenInterval.of(0, Angle.TAU);
     private final static ClosedInterval CLOSED_INTERVAL = ClosedInterval.symmetric(Angle.TAU / 2);
 
+    private final static double MAS_PER_ARCSEC = 1000;
+
+    private final static int PARALLELISM = Runtime.getRuntime().availableProcessors();
+    private final static int MIN_RANGE_BYTES = 1 << 16;
+
     /**
+     * the file is split in ranges of lines which are parsed in parallel, the stars are added in the order of the file
+     *
      * @param inputStream inputStream
      * @param builder     star catalogue's builder
      * @throws IOException if error happens
@@ -39,42 +53,101 @@ public enum HygDatabaseLoader implements StarCatalogue.Loader {
      */
     @Override
     public void load(InputStream inputStream, StarCatalogue.Builder builder) throws IOException {
+        load(inputStream, builder, StarFilter.ALL);
+    }
 
-        try (BufferedReader in = new BufferedReader(new InputStreamReader(inputStream))) {
+    /**
+     * the rows rejected by the filter are skipped before their star is built
+     *
+     * @param filter selects the rows which become stars
+     * @return a loader adding only the stars accepted by filter
+     */
+    public StarCatalogue.Loader filtered(StarFilter filter) {
+        Objects.requireNonNull(filter);
+        return new StarCatalogue.Loader() {
+            @Override
+            public void load(InputStream inputStream, StarCatalogue.Builder builder) throws IOException {
+                HygDatabaseLoader.this.load(inputStream, builder, filter);
+            }
 
-            ArrayList<String[]> starTable = new ArrayList<>();
+            @Override
+            public String loaderName() {
+                return "HygDatabaseLoader filtered";
+            }
+        };
+    }
 
-            String readFirstLine = in.readLine();
-            String starLine;
+    private void load(InputStream inputStream, StarCatalogue.Builder builder, StarFilter filter) throws IOException {
+        byte[] csv;
+        try (inputStream) {
+            csv = inputStream.readAllBytes();
+        }
 
-            while ((starLine = in.readLine()) != null) {
-                starTable.add(starLine.split(","));
-            }
+        //the first line contains the names of the columns
+        int start = nextLineIndex(csv, 0);
+        int rangeCount = Math.max(1, Math.min(PARALLELISM, (csv.length - start) / MIN_RANGE_BYTES));
+        int[] bounds = new int[rangeCount + 1];
+        bounds[0] = start;
+        bounds[rangeCount] = csv.length;
+        for (int i = 1; i < rangeCount; i++) {
+            int approximateBound = start + (int) ((long) (csv.length - start) * i / rangeCount);
+            bounds[i] = nextLineIndex(csv, Math.max(bounds[i - 1], approximateBound));
+        }
 
-            int hip;
-            String name, bayer;
-            double rarad, reducedRarad, decrad, clippedDecrad, magnitude, colorIndex;
+        List<List<Star>> ranges = IntStream.range(0, rangeCount)
+                .parallel()
+                .mapToObj(i -> starsOf(csv, bounds[i], bounds[i + 1], filter))
+                .collect(Collectors.toList());
 
+        for (List<Star> range : ranges) {
+            for (Star star : range) {
+                builder.addStar(star);
+            }
+        }
+    }
 
-            for (String[] star : starTable) {
+    //index of the first byte of the line following the one containing csv[from]
+    private static int nextLineIndex(byte[] csv, int from) {
+        int i = from;
+        while (i < csv.length && csv[i] != '\n') {
+            i++;
+        }
+        return Math.min(i + 1, csv.length);
+    }
 
-                hip = !star[HIP].isBlank() ? Integer.parseInt(star[HIP]) : 0;
-                bayer = !star[BAYER].isBlank() ? star[BAYER] : "?";
-                name = !star[PROPER].isBlank() ? star[PROPER] : bayer + " " + star[CON];
-                magnitude = !star[MAGNITUDE].isBlank() ? Double.parseDouble(star[MAGNITUDE]) : 0;
-                colorIndex = !star[COLOR_INDEX].isBlank() ? Double.parseDouble(star[COLOR_INDEX]) : 0;
+    private static List<Star> starsOf(byte[] csv, int from, int to, StarFilter filter) {
+        List<Star> stars = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new StringReader(new String(csv, from, to - from)))) {
+            String starLine;
+            while ((starLine = in.readLine()) != null) {
+                if (!starLine.isEmpty()) {
+                    addStar(starLine.split(","), filter, stars);
+                }
+            }
+        } catch (IOException e) {
+            //a StringReader doesn't throw IOException
+            throw new UncheckedIOException(e);
+        }
+        return stars;
+    }
+
+    private static void addStar(String[] star, StarFilter filter, List<Star> stars) {
+        int hip = !star[HIP].isBlank() ? Integer.parseInt(star[HIP]) : 0;
+        double magnitude = !star[MAGNITUDE].isBlank() ? Double.parseDouble(star[MAGNITUDE]) : 0;
+        double reducedRarad = RIGHT_OPEN_INTERVAL.reduce(Double.parseDouble(star[RA_RAD]));
+        double clippedDecrad = CLOSED_INTERVAL.clip(Double.parseDouble(star[DEC_RAD]));
+        if (!filter.accepts(hip, magnitude, reducedRarad, clippedDecrad)) {
+            return;
+        }
 
+        int nameCode = StarNames.encode(star[PROPER], star[BAYER], star[CON]);
+        double colorIndex = !star[COLOR_INDEX].isBlank() ? Double.parseDouble(star[COLOR_INDEX]) : 0;
 
-                rarad = Double.parseDouble(star[RA_RAD]);
-                reducedRarad = RIGHT_OPEN_INTERVAL.reduce(rarad);
-                decrad = Double.parseDouble(star[DEC_RAD]);
-                clippedDecrad = CLOSED_INTERVAL.clip(decrad);
+        double pmRa = !star[PM_RA].isBlank() ? Angle.ofArcsec(Double.parseDouble(star[PM_RA]) / MAS_PER_ARCSEC) : 0;
+        double pmDec = !star[PM_DEC].isBlank() ? Angle.ofArcsec(Double.parseDouble(star[PM_DEC]) / MAS_PER_ARCSEC) : 0;
 
-                EquatorialCoordinates equ = EquatorialCoordinates.of(reducedRarad, clippedDecrad);
+        EquatorialCoordinates equ = EquatorialCoordinates.of(reducedRarad, clippedDecrad);
 
-                builder.addStar(new Star(hip, name, equ, (float) magnitude, (float) colorIndex));
-            }
-            String ok;
-        }
+        stars.add(new Star(hip, nameCode, equ, (float) magnitude, (float) colorIndex, (float) pmRa, (float) pmDec));
     }
-}
\ No newline at end of file
+}
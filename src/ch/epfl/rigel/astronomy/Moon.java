@@ -13,19 +13,22 @@ public final class Moon extends CelestialObject {
 
     private final float percentagePhase;
     private final static ClosedInterval INTERVAL = ClosedInterval.of(0, 1);
-    private final String moonPhase;
+    private final MoonPhase moonPhase;
+    private final double phaseAngle;
 
     /**
      * @param equatorialPos equatorial coordinates
      * @param angularSize   angular size in float
      * @param magnitude     magnitude in float
      * @param phase         phase in float
+     * @param phaseAngle    difference of ecliptic longitude between the Moon and the Sun, in [0, 2pi[
      */
-    public Moon(EquatorialCoordinates equatorialPos, float angularSize, float magnitude, float phase, String moonPhase) {
+    public Moon(EquatorialCoordinates equatorialPos, float angularSize, float magnitude, float phase, double phaseAngle) {
         super("Lune", equatorialPos, angularSize, magnitude);
         Preconditions.checkInInterval(INTERVAL, phase);
         this.percentagePhase = 100 * phase;
-        this.moonPhase = moonPhase;
+        this.phaseAngle = phaseAngle;
+        this.moonPhase = MoonPhase.of(phaseAngle);
     }
 
     /**
@@ -47,10 +50,17 @@ public final class Moon extends CelestialObject {
     }
 
     /**
-     * @return moon phase name
+     * @return moon phase
      */
-    public String getMoonPhase() {
+    public MoonPhase getMoonPhase() {
         return moonPhase;
     }
 
+    /**
+     * @return phase angle in radians : 0 at new moon, pi/2 at first quarter, pi at full moon
+     */
+    public double phaseAngle() {
+        return phaseAngle;
+    }
+
 }
\ No newline at end of file
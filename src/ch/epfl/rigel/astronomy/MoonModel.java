@@ -63,41 +63,12 @@ public enum MoonModel implements CelestialObjectModel<Moon> {
         EclipticCoordinates eclCoor = EclipticCoordinates.of(Angle.normalizePositive(lonEcl), latEcl);
         EquatorialCoordinates equaCoor = eclipticToEquatorialConversion.apply(eclCoor);
 
-        double lonDiff = orbLonTrue - sun.eclipticPos().lon();
+        double lonDiff = Angle.normalizePositive(orbLonTrue - sun.eclipticPos().lon());
         double phase = (1 - cos(lonDiff)) / 2;
-        String moonPhase = moonPhaseCalc(lonDiff);
 
         double rou = (1 - ECCENTRICITY_SQUARE) / (1 + ECCENTRICITY * cos(anomalyCor + centerEquCor));
         double angularSize = theta0 / rou;
-        return new Moon(equaCoor, (float) angularSize, 0, (float) phase, moonPhase);
+        return new Moon(equaCoor, (float) angularSize, 0, (float) phase, lonDiff);
     }
 
-    private String moonPhaseCalc(double lonDiff) {
-
-        int diff = (int) Math.round((Angle.normalizePositive(lonDiff) / (2 * PI)) * 8);
-
-        switch (diff) {
-            case 0:
-            case 8:
-                return "new moon";
-            case 1:
-                return "waxing crescent";
-            case 2:
-                return "first quarter";
-            case 3:
-                return "waxing gibbous";
-            case 4:
-                return "full moon";
-            case 5:
-                return "waning gibbous";
-            case 6:
-                return "last quarter";
-            case 7:
-                return "waning crescent";
-            default:
-                throw new IllegalArgumentException();
-        }
-    }
-
-
 }
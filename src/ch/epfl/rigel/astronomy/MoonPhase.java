@@ -0,0 +1,47 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.math.Angle;
+
+import java.util.List;
+
+//enumeration contains the eight named phases of the Moon
+//by Jiabao WEN
+public enum MoonPhase {
+    NEW_MOON("new moon"),
+    WAXING_CRESCENT("waxing crescent"),
+    FIRST_QUARTER("first quarter"),
+    WAXING_GIBBOUS("waxing gibbous"),
+    FULL_MOON("full moon"),
+    WANING_GIBBOUS("waning gibbous"),
+    LAST_QUARTER("last quarter"),
+    WANING_CRESCENT("waning crescent");
+
+    public final static List<MoonPhase> ALL = List.of(values());
+
+    private final String name;
+
+    /**
+     * @param name name of the phase
+     */
+    MoonPhase(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param phaseAngle difference of ecliptic longitude between the Moon and the Sun, in [0, 2pi[
+     * @return the phase whose eighth of cycle is centered the closest to phaseAngle
+     */
+    public static MoonPhase of(double phaseAngle) {
+        int octant = (int) Math.round(phaseAngle / Angle.TAU * ALL.size());
+        return ALL.get(octant % ALL.size());
+    }
+
+    /**
+     * @return name of the phase
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
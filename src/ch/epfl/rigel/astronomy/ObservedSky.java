@@ -1,7 +1,11 @@
 package ch.epfl.rigel.astronomy;
 
+import ch.epfl.rigel.Preconditions;
 import ch.epfl.rigel.coordinates.*;
+import ch.epfl.rigel.profiling.SkyRebuildEvent;
+import ch.epfl.rigel.profiling.Stage;
 
+import java.nio.DoubleBuffer;
 import java.time.ZonedDateTime;
 import java.util.*;
 
@@ -9,14 +13,24 @@ import java.util.*;
 //by Jiabao wen
 public class ObservedSky {
 
-    private final StereographicProjection projection;
+    //indices of the abscissas in solarSystemPositions, in the order of SolarSystem#equatorialPositions
+    private final static int SUN_INDEX = 0;
+    private final static int MOON_INDEX = 2;
+    private final static int PLANETS_INDEX = 4;
+    //square of the distance to the center of the plane beyond which the objects are never visible (about 127 degrees),
+    //an object crossing the antipode of the center jumps from one side of the plane to the other and isn't interpolated
+    private final static double FAR_DISTANCE2 = 16;
+
     private final StarCatalogue catalogue;
     private final Sun sun;
     private final Moon moon;
-    private final EquatorialToHorizontalConversion equatorialToHorizontalConversion;
     private final List<Planet> planets;
-    private final double[] planetsPositions;
+    private final double[] solarSystemPositions;
     private final double[] starsPositions;
+    private final double[] starsMagnitudes;
+    //the arrays above belong to the slot as long as its generation doesn't change
+    private final Slot slot;
+    private final long generation;
 
     /**
      * @param when       the moment of observation
@@ -25,31 +39,134 @@ public class ObservedSky {
      * @param catalogue  star catalogue
      */
     public ObservedSky(ZonedDateTime when, GeographicCoordinates position, StereographicProjection projection, StarCatalogue catalogue) {
-        this.projection = projection;
-        this.catalogue = catalogue;
+        this(SolarSystem.at(when), position, projection, catalogue);
+    }
+
+    /**
+     * @param solarSystem the Sun, the Moon and the planets at the moment of observation
+     * @param position    the position of observation
+     * @param projection  used stereographic projection
+     * @param catalogue   star catalogue
+     */
+    public ObservedSky(SolarSystem solarSystem, GeographicCoordinates position, StereographicProjection projection, StarCatalogue catalogue) {
+        this(solarSystem, position, projection, catalogue, Atmosphere.NONE);
+    }
 
-        double daySinceJ2010 = Epoch.J2010.daysUntil(when);
-        EclipticToEquatorialConversion eclipticToEquatorialConversion = new EclipticToEquatorialConversion(when);
-        equatorialToHorizontalConversion = new EquatorialToHorizontalConversion(when, position);
+    /**
+     * @param solarSystem the Sun, the Moon and the planets at the moment of observation
+     * @param position    the position of observation
+     * @param projection  used stereographic projection
+     * @param catalogue   star catalogue
+     * @param atmosphere  atmosphere refracting the positions of the objects and dimming the stars
+     */
+    public ObservedSky(SolarSystem solarSystem, GeographicCoordinates position, StereographicProjection projection,
+                       StarCatalogue catalogue, Atmosphere atmosphere) {
+        this(solarSystem, position, projection, catalogue, atmosphere, new Slot());
+    }
 
-        this.sun = SunModel.SUN.at(daySinceJ2010, eclipticToEquatorialConversion);
-        this.moon = MoonModel.MOON.at(daySinceJ2010, eclipticToEquatorialConversion);
+    /**
+     * the positions are written in arrays of buffers instead of new arrays, this sky can be read until its slot
+     * is reused by a newer sky built with the same buffers, after which its methods reading the positions throw
+     * an exception
+     *
+     * @param solarSystem the Sun, the Moon and the planets at the moment of observation
+     * @param position    the position of observation
+     * @param projection  used stereographic projection
+     * @param catalogue   star catalogue
+     * @param atmosphere  atmosphere refracting the positions of the objects and dimming the stars
+     * @param buffers     buffers reused from one sky to the next
+     */
+    public ObservedSky(SolarSystem solarSystem, GeographicCoordinates position, StereographicProjection projection,
+                       StarCatalogue catalogue, Atmosphere atmosphere, Buffers buffers) {
+        this(solarSystem, position, projection, catalogue, atmosphere, buffers.nextSlot());
+    }
 
-        var planettempo = new ArrayList<Planet>();
-        for (PlanetModel planetModel : PlanetModel.ALL) {
-            if (planetModel != PlanetModel.EARTH) {
-                planettempo.add(planetModel.at(daySinceJ2010, eclipticToEquatorialConversion));
-            }
+    private ObservedSky(SolarSystem solarSystem, GeographicCoordinates position, StereographicProjection projection,
+                        StarCatalogue catalogue, Atmosphere atmosphere, Slot slot) {
+        long start = System.nanoTime();
+        SkyRebuildEvent event = new SkyRebuildEvent();
+        event.begin();
+        this.catalogue = catalogue;
+        Objects.requireNonNull(atmosphere);
+
+        EquatorialToHorizontalConversion equatorialToHorizontalConversion = new EquatorialToHorizontalConversion(solarSystem.when(), position);
+
+        this.sun = solarSystem.sun();
+        this.moon = solarSystem.moon();
+        this.planets = solarSystem.planets();
+
+        List<Star> stars = catalogue.stars();
+        this.slot = slot;
+        this.generation = slot.reserve(solarSystem.equatorialPositions().length / 2, stars.size());
+        solarSystemPositions = slot.solarSystemPositions;
+        starsPositions = slot.starsPositions;
+        starsMagnitudes = slot.starsMagnitudes;
+
+        //the Sun, the Moon and the planets are refracted like the stars, but their magnitudes aren't used
+        projectInto(solarSystem.equatorialPositions(), equatorialToHorizontalConversion, atmosphere, null,
+                projection, solarSystemPositions, 0);
+        for (int i = 0; i < starsMagnitudes.length; i++) {
+            starsMagnitudes[i] = stars.get(i).magnitude();
+        }
+        projectInto(catalogue.starPositionsAt(solarSystem.when()), equatorialToHorizontalConversion, atmosphere,
+                starsMagnitudes, projection, starsPositions, 0);
+        Stage.SKY_PROJECTION.record(start);
+        event.commit(catalogue.stars().size(), planets.size());
+    }
+
+    private ObservedSky(ObservedSky from, ObservedSky to, double t, Slot slot) {
+        long start = System.nanoTime();
+        from.checkCurrent();
+        to.checkCurrent();
+        ObservedSky nearest = t < 0.5 ? from : to;
+        this.catalogue = from.catalogue;
+        this.sun = nearest.sun;
+        this.moon = nearest.moon;
+        this.planets = nearest.planets;
+
+        this.slot = slot;
+        this.generation = slot.reserve(from.solarSystemPositions.length / 2, from.starsMagnitudes.length);
+        solarSystemPositions = slot.solarSystemPositions;
+        starsPositions = slot.starsPositions;
+        starsMagnitudes = slot.starsMagnitudes;
+
+        interpolatePositions(from.solarSystemPositions, to.solarSystemPositions, t, solarSystemPositions);
+        interpolatePositions(from.starsPositions, to.starsPositions, t, starsPositions);
+        for (int i = 0; i < starsMagnitudes.length; i++) {
+            starsMagnitudes[i] = from.starsMagnitudes[i] + t * (to.starsMagnitudes[i] - from.starsMagnitudes[i]);
         }
-        planets = Collections.unmodifiableList(planettempo);
+        Stage.SKY_PROJECTION.record(start);
+    }
 
-        planetsPositions = ObjectPositions(planets());
-        starsPositions = ObjectPositions(stars());
+    /**
+     * builds a sky between two skies by linear interpolation of the positions and the magnitudes of the objects,
+     * without computing any ephemeris nor projection, the Sun, the Moon and the planets are those of the nearest sky
+     *
+     * @param from    sky at the start of the interval
+     * @param to      sky at the end of the interval, observed with the same catalogue and projection
+     * @param t       fraction of the interval, in [0, 1]
+     * @param buffers buffers in which the positions are written, which must not hold from nor to
+     * @return the interpolated sky
+     * @throws IllegalArgumentException if the skies don't share their catalogue or t is not in [0, 1]
+     */
+    public static ObservedSky interpolate(ObservedSky from, ObservedSky to, double t, Buffers buffers) {
+        Preconditions.checkArgument(from.catalogue == to.catalogue
+                && from.planets.size() == to.planets.size() && 0 <= t && t <= 1);
+        return new ObservedSky(from, to, t, buffers.nextSlot());
     }
 
-    private CartesianCoordinates equaToCartesianConvension(CelestialObject O) {
-        HorizontalCoordinates horizontalCoordinates = equatorialToHorizontalConversion.apply(O.equatorialPos());
-        return projection.apply(horizontalCoordinates);
+    private static void interpolatePositions(double[] from, double[] to, double t, double[] positions) {
+        for (int i = 0; i < positions.length; i += 2) {
+            double x0 = from[i], y0 = from[i + 1];
+            double x1 = to[i], y1 = to[i + 1];
+            if (x0 * x0 + y0 * y0 > FAR_DISTANCE2 || x1 * x1 + y1 * y1 > FAR_DISTANCE2) {
+                positions[i] = t < 0.5 ? x0 : x1;
+                positions[i + 1] = t < 0.5 ? y0 : y1;
+            } else {
+                positions[i] = x0 + t * (x1 - x0);
+                positions[i + 1] = y0 + t * (y1 - y0);
+            }
+        }
     }
 
     /**
@@ -63,7 +180,8 @@ public class ObservedSky {
      * @return the Sun's position
      */
     public CartesianCoordinates sunPosition() {
-        return equaToCartesianConvension(sun);
+        checkCurrent();
+        return CartesianCoordinates.of(solarSystemPositions[SUN_INDEX], solarSystemPositions[SUN_INDEX + 1]);
     }
 
     /**
@@ -77,27 +195,43 @@ public class ObservedSky {
      * @return the Moon's position
      */
     public CartesianCoordinates moonPosition() {
-        return equaToCartesianConvension(moon);
+        checkCurrent();
+        return CartesianCoordinates.of(solarSystemPositions[MOON_INDEX], solarSystemPositions[MOON_INDEX + 1]);
     }
 
-    private double[] ObjectPositions(List<? extends CelestialObject> Os) {
-        List<CartesianCoordinates> CartCoor = new ArrayList<>();
-        for (CelestialObject O : Os) {
-            CartCoor.add(equaToCartesianConvension(O));
-        }
-
-        List<Double> PositionsList = new ArrayList<>();
-        for (CartesianCoordinates cartesianCoordinates : CartCoor) {
-            PositionsList.add(cartesianCoordinates.x());
-            PositionsList.add(cartesianCoordinates.y());
-        }
+    //same as below, without atmosphere
+    static void projectInto(double[] equatorialPositions, EquatorialToHorizontalConversion conversion,
+                            StereographicProjection projection, double[] positions, int offset) {
+        projectInto(equatorialPositions, conversion, Atmosphere.NONE, null, projection, positions, offset);
+    }
 
-        int length = 2 * Os.size();
-        double[] positions = new double[length];
-        for (int i = 0; i < length; i++) {
-            positions[i] = PositionsList.get(i);
+    /**
+     * writes the projected coordinates (x, y) of each object one after another in positions,
+     * the horizontal coordinates of all the objects go through the atmosphere in one pass before being projected
+     * the conversion and the projection use the approximations of FastTrig
+     *
+     * @param equatorialPositions interleaved right ascensions and declinations of the objects
+     * @param conversion          conversion from equatorial to horizontal coordinates of the observer
+     * @param atmosphere          atmosphere refracting the altitudes and dimming the magnitudes
+     * @param magnitudes          magnitudes of the objects, increased by their extinction (can be null without atmosphere)
+     * @param projection          used stereographic projection
+     * @param positions           destination array
+     * @param offset              index of the abscissa of the first object in positions
+     */
+    static void projectInto(double[] equatorialPositions, EquatorialToHorizontalConversion conversion,
+                            Atmosphere atmosphere, double[] magnitudes, StereographicProjection projection,
+                            double[] positions, int offset) {
+        int count = equatorialPositions.length / 2;
+        //the batch methods keep the indices of their input, so the coordinates are computed in place
+        double[] coordinates = offset == 0 ? positions : new double[2 * count];
+
+        conversion.applyTo(equatorialPositions, coordinates, 0, count);
+        atmosphere.applyTo(coordinates, magnitudes, count);
+        projection.applyTo(coordinates, coordinates, 0, count);
+
+        if (coordinates != positions) {
+            System.arraycopy(coordinates, 0, positions, offset, 2 * count);
         }
-        return positions;
     }
 
     /**
@@ -111,7 +245,17 @@ public class ObservedSky {
      * @return cartesian coordinates of the planets
      */
     public double[] planetPositions() {
-        return Arrays.copyOf(planetsPositions, planets().size() * 2);
+        checkCurrent();
+        return Arrays.copyOfRange(solarSystemPositions, PLANETS_INDEX, PLANETS_INDEX + planets.size() * 2);
+    }
+
+    /**
+     * @return a read-only view of the cartesian coordinates of the planets, without any copy,
+     * valid as long as this sky can be read
+     */
+    public DoubleBuffer planetPositionsView() {
+        checkCurrent();
+        return slot.planetsView.duplicate();
     }
 
     /**
@@ -125,9 +269,35 @@ public class ObservedSky {
      * @return cartesian coordinates of the stars
      */
     public double[] starPositions() {
+        checkCurrent();
         return Arrays.copyOf(starsPositions, stars().size() * 2);
     }
 
+    /**
+     * @return a read-only view of the cartesian coordinates of the stars, without any copy,
+     * valid as long as this sky can be read
+     */
+    public DoubleBuffer starPositionsView() {
+        checkCurrent();
+        return slot.starsView.duplicate();
+    }
+
+    /**
+     * @return magnitudes of the stars, in the same order as stars(), dimmed by the extinction of the atmosphere
+     */
+    public double[] starMagnitudes() {
+        checkCurrent();
+        return Arrays.copyOf(starsMagnitudes, starsMagnitudes.length);
+    }
+
+    /**
+     * @return a read-only view of the magnitudes of the stars, without any copy, valid as long as this sky can be read
+     */
+    public DoubleBuffer starMagnitudesView() {
+        checkCurrent();
+        return slot.magnitudesView.duplicate();
+    }
+
     /**
      * @return set of asterisms in the catalogue
      */
@@ -150,11 +320,12 @@ public class ObservedSky {
      * where the distance is smaller than distanceMax
      */
     public Optional<CelestialObject> objectClosestTo(CartesianCoordinates coordinates, double distanceMax) {
+        checkCurrent();
         CelestialObject closestObject = null;
         double distanceMin = 0;
 
-        double distanceSun = distanceCal(sunPosition(), coordinates);
-        double distanceMoon = distanceCal(moonPosition(), coordinates);
+        double distanceSun = distanceCal(coordinates, solarSystemPositions[SUN_INDEX], solarSystemPositions[SUN_INDEX + 1]);
+        double distanceMoon = distanceCal(coordinates, solarSystemPositions[MOON_INDEX], solarSystemPositions[MOON_INDEX + 1]);
         if (distanceMoon < distanceSun) {
             distanceMin = distanceMoon;
             closestObject = this.moon;
@@ -163,11 +334,12 @@ public class ObservedSky {
             closestObject = this.sun;
         }
 
-        for (int i = 0; i < planetsPositions.length; i += 2) {
-            double distancePlanet = distanceCal(coordinates, planetsPositions[i], planetsPositions[i + 1]);
+        for (int i = 0; i < 2 * planets.size(); i += 2) {
+            double distancePlanet = distanceCal(coordinates, solarSystemPositions[PLANETS_INDEX + i],
+                    solarSystemPositions[PLANETS_INDEX + i + 1]);
             if (distancePlanet < distanceMin) {
                 distanceMin = distancePlanet;
-                closestObject = planets().get(i / 2);
+                closestObject = planets.get(i / 2);
             }
         }
         for (int i = 0; i < starsPositions.length; i += 2) {
@@ -184,20 +356,76 @@ public class ObservedSky {
         return Optional.empty();
     }
 
-    private double distanceCal(CartesianCoordinates w1, CartesianCoordinates w2) {
-        double x1 = w1.x();
-        double x2 = w2.x();
-        double y1 = w1.y();
-        double y2 = w2.y();
-        return Math.sqrt((x1 - x2) * (x1 - x2) + (y1 - y2) * (y1 - y2));
-    }
-
     private double distanceCal(CartesianCoordinates w, double x2, double y2) {
         double x1 = w.x();
         double y1 = w.y();
         return Math.sqrt((x1 - x2) * (x1 - x2) + (y1 - y2) * (y1 - y2));
     }
 
+    //the positions of a sky whose arrays were given to a newer sky have been overwritten
+    private void checkCurrent() {
+        if (slot.generation != generation) {
+            throw new IllegalStateException("the buffers of this sky were reused by a newer sky");
+        }
+    }
+
+    //buffers shared by the skies of an animation, the skies take their arrays in turn from a fixed number of slots,
+    //so that a sky can be read while the next ones are computed, the skies must be built by a single thread
+    //by Jiabao WEN
+    public static final class Buffers {
+        private final Slot[] slots;
+        private int next;
+
+        /**
+         * buffers of two slots, a sky can be read until the second next sky is built
+         */
+        public Buffers() {
+            this(2);
+        }
+
+        /**
+         * @param slotCount number of slots, a sky can be read until the slotCount-th next sky is built
+         * @throws IllegalArgumentException if slotCount is smaller than 2
+         */
+        public Buffers(int slotCount) {
+            Preconditions.checkArgument(slotCount >= 2);
+            slots = new Slot[slotCount];
+            for (int i = 0; i < slotCount; i++) {
+                slots[i] = new Slot();
+            }
+        }
+
+        private Slot nextSlot() {
+            Slot slot = slots[next];
+            next = (next + 1) % slots.length;
+            return slot;
+        }
+    }
+
+    //arrays of one sky and their read-only views, the arrays are only replaced when the number of objects changes
+    private static final class Slot {
+        private double[] solarSystemPositions = new double[0];
+        private double[] starsPositions = new double[0];
+        private double[] starsMagnitudes = new double[0];
+        private DoubleBuffer planetsView, starsView, magnitudesView;
+        //written before the arrays are overwritten, so that a sky read on another thread sees that it is stale
+        private volatile long generation;
+
+        private long reserve(int solarSystemCount, int starCount) {
+            long reserved = ++generation;
+            if (solarSystemPositions.length != 2 * solarSystemCount || starsMagnitudes.length != starCount) {
+                solarSystemPositions = new double[2 * solarSystemCount];
+                starsPositions = new double[2 * starCount];
+                starsMagnitudes = new double[starCount];
+                planetsView = DoubleBuffer.wrap(solarSystemPositions, PLANETS_INDEX, solarSystemPositions.length - PLANETS_INDEX)
+                        .slice().asReadOnlyBuffer();
+                starsView = DoubleBuffer.wrap(starsPositions).asReadOnlyBuffer();
+                magnitudesView = DoubleBuffer.wrap(starsMagnitudes).asReadOnlyBuffer();
+            }
+            return reserved;
+        }
+    }
+
 
 }
 
@@ -0,0 +1,113 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.Preconditions;
+import ch.epfl.rigel.coordinates.EquatorialToHorizontalConversion;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+//computes the projected positions of the sky for many observers at the same instant
+//the solar system is computed once per instant, the projections of the observers are spread over a thread pool
+//by Jiabao WEN
+public final class ObservedSkyBatch implements AutoCloseable {
+
+    /**
+     * index of the abscissa of the Sun in a positions array, followed by its ordinate
+     */
+    public final static int SUN_INDEX = 0;
+    /**
+     * index of the abscissa of the Moon in a positions array, followed by its ordinate
+     */
+    public final static int MOON_INDEX = 2;
+    /**
+     * index of the abscissa of the first planet in a positions array, in the order of SolarSystem#planets()
+     */
+    public final static int PLANETS_INDEX = 4;
+    /**
+     * index of the abscissa of the first star in a positions array, in the order of StarCatalogue#stars()
+     */
+    public final static int STARS_INDEX = PLANETS_INDEX + 2 * (PlanetModel.ALL.size() - 1);
+
+    private final static int OBSERVERS_PER_TASK = 4;
+
+    private final StarCatalogue catalogue;
+    private final ExecutorService executor;
+
+    /**
+     * @param catalogue star catalogue
+     * @param threads   number of threads computing the projections
+     * @throws IllegalArgumentException if threads is not strictly positive
+     */
+    public ObservedSkyBatch(StarCatalogue catalogue, int threads) {
+        Preconditions.checkArgument(threads > 0);
+        this.catalogue = catalogue;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "observed-sky-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param when       the moment of observation, shared by all the observers
+     * @param observers  positions of the observers
+     * @param projection used stereographic projection, shared by all the observers
+     * @return for each observer (in the same order), the projected positions (x, y) of the Sun, the Moon,
+     * the planets and the stars, starting at SUN_INDEX, MOON_INDEX, PLANETS_INDEX and STARS_INDEX
+     * @throws InterruptedException if the thread is interrupted while waiting for the projections
+     */
+    public List<double[]> positions(ZonedDateTime when, List<GeographicCoordinates> observers,
+                                    StereographicProjection projection) throws InterruptedException {
+        SolarSystem solarSystem = SolarSystem.at(when);
+
+        List<Callable<List<double[]>>> tasks = new ArrayList<>();
+        for (int i = 0; i < observers.size(); i += OBSERVERS_PER_TASK) {
+            List<GeographicCoordinates> subList = observers.subList(i, Math.min(i + OBSERVERS_PER_TASK, observers.size()));
+            tasks.add(() -> {
+                List<double[]> positions = new ArrayList<>(subList.size());
+                for (GeographicCoordinates observer : subList) {
+                    positions.add(positions(solarSystem, observer, projection));
+                }
+                return positions;
+            });
+        }
+
+        List<double[]> positions = new ArrayList<>(observers.size());
+        try {
+            for (Future<List<double[]>> future : executor.invokeAll(tasks)) {
+                positions.addAll(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        return positions;
+    }
+
+    private double[] positions(SolarSystem solarSystem, GeographicCoordinates observer, StereographicProjection projection) {
+        EquatorialToHorizontalConversion conversion = new EquatorialToHorizontalConversion(solarSystem.when(), observer);
+        double[] positions = new double[STARS_INDEX + 2 * catalogue.stars().size()];
+
+        //the Sun, the Moon and the planets come first, in the order of SolarSystem#equatorialPositions
+        ObservedSky.projectInto(solarSystem.equatorialPositions(), conversion, projection, positions, SUN_INDEX);
+        ObservedSky.projectInto(catalogue.starPositionsAt(solarSystem.when()), conversion, projection, positions, STARS_INDEX);
+        return positions;
+    }
+
+    /**
+     * stops the threads of the batch
+     *
+     * @see AutoCloseable#close()
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
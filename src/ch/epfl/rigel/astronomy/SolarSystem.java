@@ -0,0 +1,103 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.profiling.Stage;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+//represents the Sun, the Moon and the planets at a given instant
+//their equatorial positions don't depend on the observer, so they can be shared by many observed skies
+//each model converts the ecliptic position of its body with apply, as its object holds the equatorial coordinates,
+//the packed array of the positions is only filled afterwards, for the batch projection of the observed skies
+//by Jiabao WEN
+public final class SolarSystem {
+
+    private final ZonedDateTime when;
+    private final Sun sun;
+    private final Moon moon;
+    private final List<Planet> planets;
+    //interleaved right ascensions and declinations of the Sun, the Moon and the planets
+    private final double[] equatorialPositions;
+
+    private SolarSystem(ZonedDateTime when, Sun sun, Moon moon, List<Planet> planets) {
+        this.when = when;
+        this.sun = sun;
+        this.moon = moon;
+        this.planets = planets;
+
+        equatorialPositions = new double[2 * (2 + planets.size())];
+        putEquatorialPosition(sun, 0);
+        putEquatorialPosition(moon, 1);
+        for (int i = 0; i < planets.size(); i++) {
+            putEquatorialPosition(planets.get(i), 2 + i);
+        }
+    }
+
+    private void putEquatorialPosition(CelestialObject object, int index) {
+        equatorialPositions[2 * index] = object.equatorialPos().ra();
+        equatorialPositions[2 * index + 1] = object.equatorialPos().dec();
+    }
+
+    /**
+     * @param when the moment of observation
+     * @return the Sun, the Moon and the planets (except the Earth) at the given moment
+     */
+    public static SolarSystem at(ZonedDateTime when) {
+        long start = System.nanoTime();
+        double daySinceJ2010 = Epoch.J2010.daysUntil(Objects.requireNonNull(when));
+        EclipticToEquatorialConversion eclipticToEquatorialConversion = new EclipticToEquatorialConversion(when);
+
+        Sun sun = SunModel.SUN.at(daySinceJ2010, eclipticToEquatorialConversion);
+        Moon moon = MoonModel.MOON.at(daySinceJ2010, eclipticToEquatorialConversion);
+
+        var planets = new ArrayList<Planet>();
+        for (PlanetModel planetModel : PlanetModel.ALL) {
+            if (planetModel != PlanetModel.EARTH) {
+                planets.add(planetModel.at(daySinceJ2010, eclipticToEquatorialConversion));
+            }
+        }
+        SolarSystem solarSystem = new SolarSystem(when, sun, moon, Collections.unmodifiableList(planets));
+        Stage.SOLAR_SYSTEM.record(start);
+        return solarSystem;
+    }
+
+    /**
+     * @return the moment of observation
+     */
+    public ZonedDateTime when() {
+        return when;
+    }
+
+    /**
+     * @return sun
+     */
+    public Sun sun() {
+        return sun;
+    }
+
+    /**
+     * @return moon
+     */
+    public Moon moon() {
+        return moon;
+    }
+
+    /**
+     * @return the planets, in the order of PlanetModel.ALL without the Earth
+     */
+    public List<Planet> planets() {
+        return planets;
+    }
+
+    /**
+     * @return the right ascensions and the declinations of the Sun, the Moon, then the planets in the order of
+     * planets(), interleaved (ra0, dec0, ra1, dec1...), the array must not be modified
+     */
+    double[] equatorialPositions() {
+        return equatorialPositions;
+    }
+}
@@ -9,6 +9,9 @@ import ch.epfl.rigel.math.ClosedInterval;
 public final class Star extends CelestialObject {
 
     private final int hipparcosId;
+    private final int nameCode;
+    private final float properMotionRa;
+    private final float properMotionDec;
     private final double colorTemperature;
     private final static double V = 0.92;
     private final static ClosedInterval COLOR_INDEX_INTERVAL = ClosedInterval.of(-0.5, 5.5);
@@ -25,7 +28,47 @@ public final class Star extends CelestialObject {
         Preconditions.checkArgument(hipparcosId >= 0);
         Preconditions.checkInInterval(COLOR_INDEX_INTERVAL, colorIndex);
         this.hipparcosId = hipparcosId;
-        this.colorTemperature = 4600 * (1 / (V * colorIndex + 1.7) + 1 / (V * colorIndex + 0.62));
+        this.nameCode = 0;
+        this.properMotionRa = 0;
+        this.properMotionDec = 0;
+        this.colorTemperature = colorTemperature(colorIndex);
+    }
+
+    /**
+     * the name is built from its code only when it's asked
+     *
+     * @param hipparcosId     identification number of the star in the Hipparcos catalog
+     * @param nameCode        code of the name of the star, given by StarNames#encode
+     * @param equatorialPos   the equatorial position of the star at J2000
+     * @param magnitude       the magnitude of the star
+     * @param colorIndex      the color index of the star
+     * @param properMotionRa  proper motion in right ascension multiplied by cos(dec), in radians per Julian year
+     * @param properMotionDec proper motion in declination, in radians per Julian year
+     */
+    Star(int hipparcosId, int nameCode, EquatorialCoordinates equatorialPos, float magnitude, float colorIndex,
+         float properMotionRa, float properMotionDec) {
+        super(equatorialPos, 0, magnitude);
+        Preconditions.checkArgument(hipparcosId >= 0);
+        Preconditions.checkInInterval(COLOR_INDEX_INTERVAL, colorIndex);
+        this.hipparcosId = hipparcosId;
+        this.nameCode = nameCode;
+        this.properMotionRa = properMotionRa;
+        this.properMotionDec = properMotionDec;
+        this.colorTemperature = colorTemperature(colorIndex);
+    }
+
+    private static double colorTemperature(float colorIndex) {
+        return 4600 * (1 / (V * colorIndex + 1.7) + 1 / (V * colorIndex + 0.62));
+    }
+
+    /**
+     * @return the name of the star
+     * @see CelestialObject#name()
+     */
+    @Override
+    public String name() {
+        String name = super.name();
+        return name != null ? name : StarNames.decode(nameCode);
     }
 
     /**
@@ -35,6 +78,21 @@ public final class Star extends CelestialObject {
         return hipparcosId;
     }
 
+    /**
+     * @return star's proper motion in right ascension multiplied by the cosine of its declination,
+     * in radians per Julian year
+     */
+    public double properMotionRa() {
+        return properMotionRa;
+    }
+
+    /**
+     * @return star's proper motion in declination, in radians per Julian year
+     */
+    public double properMotionDec() {
+        return properMotionDec;
+    }
+
     /**
      * @return star's color temperature
      */
@@ -1,15 +1,20 @@
 package ch.epfl.rigel.astronomy;
 
 import ch.epfl.rigel.Preconditions;
+import ch.epfl.rigel.profiling.CatalogueLoadEvent;
+import ch.epfl.rigel.profiling.CountingInputStream;
 
 import java.io.*;
+import java.time.ZonedDateTime;
 import java.util.*;
 
 //represents a catalogue of stars and asterisms
 //by Jiabao Wen
 public final class StarCatalogue {
-    private final List<Star> stars;
+    private final StarList stars;
+    private final HipparcosIndex hipparcosIndex;
     private final Map<Asterism, List<Integer>> starCat;
+    private volatile StarPositions starPositions;
 
     /**
      * @param stars     a list of star
@@ -17,28 +22,136 @@ public final class StarCatalogue {
      * @throws IllegalArgumentException if one of the asterism doesn't belong to the stars
      */
     public StarCatalogue(List<Star> stars, List<Asterism> asterisms) {
+        this.stars = StarList.copyOf(stars);
+        this.hipparcosIndex = HipparcosIndex.of(this.stars);
+
+        Map<Asterism, List<Integer>> starCatTempo = new HashMap<>();
+
         for (Asterism asterism : asterisms) {
-            Preconditions.checkArgument(stars.containsAll(asterism.stars()));
+            starCatTempo.put(asterism, indicesOf(asterism, this.stars, hipparcosIndex));
         }
-        this.stars = List.copyOf(stars);
+        starCat = Collections.unmodifiableMap(starCatTempo);
 
-        Map<Star, Integer> starInt = new HashMap<>();
+    }
 
-        for (int i = 0; i < stars.size(); i++) {
-            starInt.put(stars.get(i), i);
+    private StarCatalogue(StarList stars, HipparcosIndex hipparcosIndex, Map<Asterism, List<Integer>> starCat) {
+        this.stars = stars;
+        this.hipparcosIndex = hipparcosIndex;
+        this.starCat = Collections.unmodifiableMap(starCat);
+    }
+
+    private static List<Integer> indicesOf(Asterism asterism, List<Star> stars, HipparcosIndex hipparcosIndex) {
+        List<Integer> index = new ArrayList<>();
+        for (Star star : asterism.stars()) {
+            index.add(indexOf(star, stars, hipparcosIndex));
         }
+        return Collections.unmodifiableList(index);
+    }
 
-        Map<Asterism, List<Integer>> starCatTempo = new HashMap<>();
+    //a Hipparcos number can be shared by many stars (0 for the unnumbered ones), the list is scanned in this case
+    private static int indexOf(Star star, List<Star> stars, HipparcosIndex hipparcosIndex) {
+        int index = hipparcosIndex.get(star.hipparcosId());
+        if (index == HipparcosIndex.ABSENT || stars.get(index) != star) {
+            index = stars.indexOf(star);
+            Preconditions.checkArgument(index != -1);
+        }
+        return index;
+    }
 
-        for (Asterism asterism : asterisms) {
-            List<Integer> index = new ArrayList<>();
-            for (Star star : asterism.stars()) {
-                index.add(starInt.get(star));
+    /**
+     * builds a new catalogue without rebuilding the unchanged parts of this one, which are shared by both
+     * the asterisms containing a replaced star are replaced by asterisms containing the new star
+     *
+     * @param delta the stars and asterisms added, replaced and removed
+     * @return the catalogue with the changes of the delta applied, in the order removal, replacement and addition
+     * @throws IllegalArgumentException if a removed or replaced star isn't in the catalogue, if a star is both
+     *                                  removed and replaced, or if a kept asterism contains a removed star
+     */
+    public StarCatalogue withDelta(Delta delta) {
+        int[] removed = delta.removedStars.stream()
+                .mapToInt(this::existingStarIndex)
+                .sorted()
+                .distinct()
+                .toArray();
+
+        Map<Integer, Star> replaced = new HashMap<>();
+        Map<Star, Star> replacements = new IdentityHashMap<>();
+        for (Star star : delta.replacedStars) {
+            int index = existingStarIndex(star.hipparcosId());
+            Preconditions.checkArgument(Arrays.binarySearch(removed, index) < 0);
+            replaced.put(index, star);
+            replacements.put(stars.get(index), star);
+        }
+
+        StarList newStars = stars.edited(removed, replaced, delta.addedStars);
+        HipparcosIndex newIndex;
+        if (removed.length == 0) {
+            newIndex = hipparcosIndex.copy();
+            for (int i = 0; i < delta.addedStars.size(); i++) {
+                newIndex.put(delta.addedStars.get(i).hipparcosId(), stars.size() + i);
             }
-            starCatTempo.put(asterism, Collections.unmodifiableList(index));
+        } else {
+            newIndex = HipparcosIndex.of(newStars);
         }
-        starCat = Collections.unmodifiableMap(starCatTempo);
 
+        Set<Asterism> removedAsterisms = Collections.newSetFromMap(new IdentityHashMap<>());
+        removedAsterisms.addAll(delta.removedAsterisms);
+        Map<Asterism, List<Integer>> newStarCat = new HashMap<>();
+        for (Map.Entry<Asterism, List<Integer>> entry : starCat.entrySet()) {
+            Asterism asterism = entry.getKey();
+            if (removedAsterisms.contains(asterism)) {
+                continue;
+            }
+            List<Integer> indices = entry.getValue();
+            if (removed.length > 0 && Collections.max(indices) >= removed[0]) {
+                List<Integer> shiftedIndices = new ArrayList<>(indices.size());
+                for (int index : indices) {
+                    Preconditions.checkArgument(Arrays.binarySearch(removed, index) < 0);
+                    shiftedIndices.add(StarList.indexAfterRemoval(removed, index));
+                }
+                indices = Collections.unmodifiableList(shiftedIndices);
+            }
+            if (!Collections.disjoint(replacements.keySet(), asterism.stars())) {
+                List<Star> asterismStars = new ArrayList<>(asterism.stars());
+                asterismStars.replaceAll(star -> replacements.getOrDefault(star, star));
+                asterism = new Asterism(asterismStars);
+            }
+            newStarCat.put(asterism, indices);
+        }
+        for (Asterism asterism : delta.addedAsterisms) {
+            newStarCat.put(asterism, indicesOf(asterism, newStars, newIndex));
+        }
+
+        return new StarCatalogue(newStars, newIndex, newStarCat);
+    }
+
+    private int existingStarIndex(int hipparcosId) {
+        int index = hipparcosIndex.get(hipparcosId);
+        Preconditions.checkArgument(index != HipparcosIndex.ABSENT);
+        return index;
+    }
+
+    /**
+     * @param hipparcosId Hipparcos number
+     * @return the index in the catalogue of the star with the given Hipparcos number (the last one if many stars
+     * share it), or -1 if there is none
+     */
+    public int starIndex(int hipparcosId) {
+        return hipparcosIndex.get(hipparcosId);
+    }
+
+    /**
+     * @param when an instant
+     * @return the true right ascension and declination of the date of each star moved by its proper motion,
+     * interleaved (ra0, dec0, ra1, dec1...), the positions are the same for all the instants of a few days
+     */
+    double[] starPositionsAt(ZonedDateTime when) {
+        StarPositions positions = starPositions;
+        if (positions == null) {
+            positions = new StarPositions(stars);
+            starPositions = positions;
+        }
+        return positions.at(when);
     }
 
     /**
@@ -70,16 +183,27 @@ public final class StarCatalogue {
     static public final class Builder {
         private final List<Star> stars = new ArrayList<>();
         private final List<Asterism> asterisms = new ArrayList<>();
+        private final HipparcosIndex hipparcosIndex = new HipparcosIndex();
 
         /**
          * @param star a star
          * @return the builder with the adding star
          */
         public Builder addStar(Star star) {
+            hipparcosIndex.put(star.hipparcosId(), this.stars.size());
             this.stars.add(star);
             return this;
         }
 
+        /**
+         * @param hipparcosId Hipparcos number
+         * @return the index in stars() of the star with the given Hipparcos number (the last one if many stars
+         * share it), or -1 if there is none
+         */
+        public int starIndex(int hipparcosId) {
+            return hipparcosIndex.get(hipparcosId);
+        }
+
         /**
          * @return a view of the list of stars
          */
@@ -110,7 +234,14 @@ public final class StarCatalogue {
          * @throws IOException if error happens
          */
         public Builder loadFrom(InputStream inputStream, Loader loader) throws IOException {
-            loader.load(inputStream, this);
+            CatalogueLoadEvent event = new CatalogueLoadEvent();
+            event.begin();
+            int starCount = stars.size();
+            int asterismCount = asterisms.size();
+            CountingInputStream countingStream = new CountingInputStream(inputStream);
+            loader.load(countingStream, this);
+            event.commit(loader.loaderName(),
+                    stars.size() - starCount, asterisms.size() - asterismCount, countingStream.count());
             return this;
         }
 
@@ -124,6 +255,62 @@ public final class StarCatalogue {
 
     }
 
+    //changes applied to a catalogue to build a new one
+    //the stars are designated by their Hipparcos number
+    //by Jiabao WEN
+    public static final class Delta {
+        private final List<Integer> removedStars = new ArrayList<>();
+        private final List<Star> replacedStars = new ArrayList<>();
+        private final List<Star> addedStars = new ArrayList<>();
+        private final List<Asterism> removedAsterisms = new ArrayList<>();
+        private final List<Asterism> addedAsterisms = new ArrayList<>();
+
+        /**
+         * @param hipparcosId Hipparcos number of the removed star
+         * @return the delta with the removed star
+         */
+        public Delta removeStar(int hipparcosId) {
+            removedStars.add(hipparcosId);
+            return this;
+        }
+
+        /**
+         * @param star the star replacing the one of the catalogue with the same Hipparcos number
+         * @return the delta with the replaced star
+         */
+        public Delta replaceStar(Star star) {
+            replacedStars.add(Objects.requireNonNull(star));
+            return this;
+        }
+
+        /**
+         * @param star a star added at the end of the catalogue
+         * @return the delta with the added star
+         */
+        public Delta addStar(Star star) {
+            addedStars.add(Objects.requireNonNull(star));
+            return this;
+        }
+
+        /**
+         * @param asterism an asterism of the catalogue
+         * @return the delta with the removed asterism
+         */
+        public Delta removeAsterism(Asterism asterism) {
+            removedAsterisms.add(Objects.requireNonNull(asterism));
+            return this;
+        }
+
+        /**
+         * @param asterism an asterism whose stars belong to the new catalogue
+         * @return the delta with the added asterism
+         */
+        public Delta addAsterism(Asterism asterism) {
+            addedAsterisms.add(Objects.requireNonNull(asterism));
+            return this;
+        }
+    }
+
     //Interface represents a loader of starCatalogue
     //by Jiabao WEN
     public interface Loader {
@@ -132,6 +319,13 @@ public final class StarCatalogue {
          * @param builder     a star catalogue builder
          */
         void load(InputStream inputStream, StarCatalogue.Builder builder) throws IOException;
+
+        /**
+         * @return the name of the loader in the profiling events, the name of its class by default
+         */
+        default String loaderName() {
+            return getClass().getSimpleName();
+        }
     }
 
 
@@ -0,0 +1,102 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.Preconditions;
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.math.ClosedInterval;
+
+import java.util.List;
+import java.util.Objects;
+
+//selects the rows of the HYG database which become stars of the catalogue
+//a star is kept if it's bright enough and in the region, or if it belongs to one of the kept asterisms
+//by Jiabao WEN
+public final class StarFilter {
+
+    /**
+     * filter keeping all the stars
+     */
+    public final static StarFilter ALL = new StarFilter(Double.POSITIVE_INFINITY, null, -1, new HipparcosIndex());
+
+    private final static ClosedInterval RADIUS_INTERVAL = ClosedInterval.of(0, Angle.TAU / 2);
+
+    private final double limitingMagnitude;
+    private final EquatorialCoordinates regionCenter;
+    private final double cosRegionRadius;
+    private final HipparcosIndex keptStars;
+
+    private StarFilter(double limitingMagnitude, EquatorialCoordinates regionCenter, double cosRegionRadius,
+                       HipparcosIndex keptStars) {
+        this.limitingMagnitude = limitingMagnitude;
+        this.regionCenter = regionCenter;
+        this.cosRegionRadius = cosRegionRadius;
+        this.keptStars = keptStars;
+    }
+
+    /**
+     * @param limitingMagnitude magnitude of the faintest kept stars
+     * @return a filter keeping the stars whose magnitude is smaller or equal to limitingMagnitude
+     * @throws IllegalArgumentException if limitingMagnitude is NaN
+     */
+    public static StarFilter brighterThan(double limitingMagnitude) {
+        Preconditions.checkArgument(!Double.isNaN(limitingMagnitude));
+        return ALL.withLimitingMagnitude(limitingMagnitude);
+    }
+
+    /**
+     * @param limitingMagnitude magnitude of the faintest kept stars
+     * @return the same filter, keeping only the stars whose magnitude is smaller or equal to limitingMagnitude
+     * @throws IllegalArgumentException if limitingMagnitude is NaN
+     */
+    public StarFilter withLimitingMagnitude(double limitingMagnitude) {
+        Preconditions.checkArgument(!Double.isNaN(limitingMagnitude));
+        return new StarFilter(limitingMagnitude, regionCenter, cosRegionRadius, keptStars);
+    }
+
+    /**
+     * @param center center of the region
+     * @param radius angular radius of the region, in radians
+     * @return the same filter, keeping only the stars at most at radius from center
+     * @throws IllegalArgumentException if radius isn't in [0, pi]
+     */
+    public StarFilter withRegion(EquatorialCoordinates center, double radius) {
+        Preconditions.checkInInterval(RADIUS_INTERVAL, radius);
+        return new StarFilter(limitingMagnitude, Objects.requireNonNull(center), Math.cos(radius), keptStars);
+    }
+
+    /**
+     * @param asterisms for each asterism, the Hipparcos numbers of its stars (as given by AsterismLoader#parse)
+     * @return the same filter, also keeping all the stars of the given asterisms, besides the ones it already keeps
+     */
+    public StarFilter keeping(List<int[]> asterisms) {
+        HipparcosIndex kept = keptStars.copy();
+        for (int[] asterism : asterisms) {
+            for (int hipparcosId : asterism) {
+                kept.put(hipparcosId, 0);
+            }
+        }
+        return new StarFilter(limitingMagnitude, regionCenter, cosRegionRadius, kept);
+    }
+
+    /**
+     * @param hipparcosId Hipparcos number of the star
+     * @param magnitude   magnitude of the star
+     * @param ra          right ascension of the star, in radians
+     * @param dec         declination of the star, in radians
+     * @return true if the star must be added to the catalogue
+     */
+    boolean accepts(int hipparcosId, double magnitude, double ra, double dec) {
+        if (keptStars.get(hipparcosId) != HipparcosIndex.ABSENT) {
+            return true;
+        }
+        if (magnitude > limitingMagnitude) {
+            return false;
+        }
+        if (regionCenter == null) {
+            return true;
+        }
+        double cosDistance = Math.sin(dec) * Math.sin(regionCenter.dec())
+                + Math.cos(dec) * Math.cos(regionCenter.dec()) * Math.cos(ra - regionCenter.ra());
+        return cosDistance >= cosRegionRadius;
+    }
+}
@@ -0,0 +1,151 @@
+package ch.epfl.rigel.astronomy;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+//immutable list of stars stored in chunks of fixed size
+//an edited list shares with the original one the chunks which aren't modified
+//by Jiabao WEN
+final class StarList extends AbstractList<Star> implements RandomAccess {
+
+    private final static int CHUNK_BITS = 10;
+    private final static int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private final static int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    //all the chunks are full, except the last one whose length is exactly the number of stars it contains
+    private final Star[][] chunks;
+    private final int size;
+
+    private StarList(Star[][] chunks, int size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    /**
+     * @param stars a list of stars
+     * @return an immutable copy of stars
+     * @throws NullPointerException if one of the stars is null
+     */
+    static StarList copyOf(List<Star> stars) {
+        if (stars instanceof StarList) {
+            return (StarList) stars;
+        }
+        Appender appender = new Appender(new Star[0][], 0);
+        for (Star star : stars) {
+            appender.append(star);
+        }
+        return appender.toList();
+    }
+
+    /**
+     * @param removed  indices of the removed stars, in increasing order
+     * @param replaced new stars by the index of the star they replace, none of them is removed
+     * @param added    stars added at the end of the list
+     * @return the edited list, whose chunks before the first removed star are shared with this one
+     */
+    StarList edited(int[] removed, Map<Integer, Star> replaced, List<Star> added) {
+        int firstChanged = removed.length == 0 ? size : removed[0];
+        int sharedChunks = firstChanged >> CHUNK_BITS;
+
+        Appender appender = new Appender(chunks, sharedChunks);
+        int nextRemoved = 0;
+        for (int i = sharedChunks << CHUNK_BITS; i < size; i++) {
+            if (nextRemoved < removed.length && removed[nextRemoved] == i) {
+                nextRemoved++;
+            } else {
+                appender.append(get(i));
+            }
+        }
+        for (Star star : added) {
+            appender.append(star);
+        }
+        StarList edited = appender.toList();
+
+        boolean[] copied = new boolean[sharedChunks];
+        for (Map.Entry<Integer, Star> replacement : replaced.entrySet()) {
+            int index = indexAfterRemoval(removed, replacement.getKey());
+            int chunk = index >> CHUNK_BITS;
+            if (chunk < sharedChunks && !copied[chunk]) {
+                edited.chunks[chunk] = edited.chunks[chunk].clone();
+                copied[chunk] = true;
+            }
+            edited.chunks[chunk][index & CHUNK_MASK] = Objects.requireNonNull(replacement.getValue());
+        }
+        return edited;
+    }
+
+    /**
+     * @param removed indices of the removed stars, in increasing order
+     * @param index   index of a star which isn't removed
+     * @return the index of the star once the stars are removed
+     */
+    static int indexAfterRemoval(int[] removed, int index) {
+        int insertionPoint = Arrays.binarySearch(removed, index);
+        return index - (insertionPoint >= 0 ? insertionPoint : -insertionPoint - 1);
+    }
+
+    /**
+     * @param index index of the star
+     * @return the star at the given index
+     * @see AbstractList#get(int)
+     */
+    @Override
+    public Star get(int index) {
+        Objects.checkIndex(index, size);
+        return chunks[index >> CHUNK_BITS][index & CHUNK_MASK];
+    }
+
+    /**
+     * @return the number of stars
+     * @see AbstractList#size()
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    //fills the chunks of a new list, after a number of chunks shared with another one
+    private static final class Appender {
+        private Star[][] chunks;
+        private int chunkCount;
+        private Star[] current;
+        private int currentSize;
+
+        private Appender(Star[][] sharedChunks, int sharedCount) {
+            this.chunks = Arrays.copyOf(sharedChunks, Math.max(sharedCount, 1));
+            this.chunkCount = sharedCount;
+            this.current = new Star[CHUNK_SIZE];
+        }
+
+        private void append(Star star) {
+            current[currentSize++] = Objects.requireNonNull(star);
+            if (currentSize == CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (chunkCount == chunks.length) {
+                chunks = Arrays.copyOf(chunks, 2 * chunks.length);
+            }
+            chunks[chunkCount++] = currentSize == CHUNK_SIZE ? current : Arrays.copyOf(current, currentSize);
+            current = new Star[CHUNK_SIZE];
+            currentSize = 0;
+        }
+
+        private StarList toList() {
+            if (currentSize > 0) {
+                flush();
+            }
+            int size = 0;
+            for (int i = 0; i < chunkCount; i++) {
+                size += chunks[i].length;
+            }
+            return new StarList(Arrays.copyOf(chunks, chunkCount), size);
+        }
+    }
+}
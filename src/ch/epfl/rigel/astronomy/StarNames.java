@@ -0,0 +1,105 @@
+package ch.epfl.rigel.astronomy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//encodes the name of a star of the HYG database in an int, so that the name string is only built when it's displayed
+//a proper name is stored as its index in a table, otherwise the Bayer designation and the constellation are
+//stored as their indices in a table of interned strings
+//the tables of the proper names and of the Bayer designations only grow, the HYG database contains a few hundred
+//different strings of each kind, the constellations are the 88 of the IAU, so that no catalogue, however often
+//it's reloaded, can fill their table
+//by Jiabao WEN
+final class StarNames {
+
+    private final static String UNKNOWN_BAYER = "?";
+    private final static int CONSTELLATION_BITS = 8;
+    private final static int CONSTELLATION_MASK = (1 << CONSTELLATION_BITS) - 1;
+    private final static int MAX_BAYER_CODE = (1 << (Integer.SIZE - 1 - CONSTELLATION_BITS)) - 1;
+
+    //the abbreviations of the IAU, preceded by the blank one of the stars outside any constellation
+    private final static List<String> CONSTELLATIONS = List.of("",
+            "And", "Ant", "Aps", "Aql", "Aqr", "Ara", "Ari", "Aur", "Boo", "CMa", "CMi", "CVn", "Cae", "Cam", "Cap",
+            "Car", "Cas", "Cen", "Cep", "Cet", "Cha", "Cir", "Cnc", "Col", "Com", "CrA", "CrB", "Crt", "Cru", "Crv",
+            "Cyg", "Del", "Dor", "Dra", "Equ", "Eri", "For", "Gem", "Gru", "Her", "Hor", "Hya", "Hyi", "Ind", "LMi",
+            "Lac", "Leo", "Lep", "Lib", "Lup", "Lyn", "Lyr", "Men", "Mic", "Mon", "Mus", "Nor", "Oct", "Oph", "Ori",
+            "Pav", "Peg", "Per", "Phe", "Pic", "PsA", "Psc", "Pup", "Pyx", "Ret", "Scl", "Sco", "Sct", "Ser", "Sex",
+            "Sge", "Sgr", "Tau", "Tel", "TrA", "Tri", "Tuc", "UMa", "UMi", "Vel", "Vir", "Vol", "Vul");
+    private final static Map<String, Integer> CONSTELLATION_CODES = constellationCodes();
+
+    private final static Table PROPER_NAMES = new Table(Integer.MAX_VALUE - 1);
+    private final static Table BAYERS = new Table(MAX_BAYER_CODE);
+
+    private StarNames() {
+    }
+
+    /**
+     * @param properName    proper name of the star, blank if it has none
+     * @param bayer         Bayer designation of the star, blank if it has none
+     * @param constellation IAU abbreviation of the constellation of the star, blank if it has none
+     * @return the code of the name of the star
+     * @throws IllegalArgumentException if the star has no proper name and the constellation isn't one of the IAU
+     * @throws IllegalStateException    if a table is full
+     */
+    static int encode(String properName, String bayer, String constellation) {
+        if (!properName.isBlank()) {
+            return -1 - PROPER_NAMES.codeOf(properName);
+        }
+        Integer constellationCode = CONSTELLATION_CODES.get(constellation.strip());
+        if (constellationCode == null) {
+            throw new IllegalArgumentException("unknown constellation : " + constellation);
+        }
+        int bayerCode = BAYERS.codeOf(bayer.isBlank() ? UNKNOWN_BAYER : bayer);
+        return (bayerCode << CONSTELLATION_BITS) | constellationCode;
+    }
+
+    /**
+     * @param code code returned by encode
+     * @return the proper name of the star, or its Bayer designation followed by its constellation
+     */
+    static String decode(int code) {
+        if (code < 0) {
+            return PROPER_NAMES.stringOf(-1 - code);
+        }
+        return BAYERS.stringOf(code >>> CONSTELLATION_BITS) + " " + CONSTELLATIONS.get(code & CONSTELLATION_MASK);
+    }
+
+    private static Map<String, Integer> constellationCodes() {
+        Map<String, Integer> codes = new HashMap<>();
+        for (int i = 0; i < CONSTELLATIONS.size(); i++) {
+            codes.put(CONSTELLATIONS.get(i), i);
+        }
+        return Map.copyOf(codes);
+    }
+
+    //interned strings numbered in the order of their first appearance
+    private static final class Table {
+        private final int maxCode;
+        private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        private Table(int maxCode) {
+            this.maxCode = maxCode;
+        }
+
+        private int codeOf(String string) {
+            Integer code = codes.get(string);
+            return code != null ? code : codes.computeIfAbsent(string, this::append);
+        }
+
+        private synchronized int append(String string) {
+            if (strings.size() > maxCode) {
+                throw new IllegalStateException("too many different names");
+            }
+            strings.add(string);
+            return strings.size() - 1;
+        }
+
+        private synchronized String stringOf(int code) {
+            return strings.get(code);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.PrecessionNutation;
+import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.math.ClosedInterval;
+
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//true equatorial positions of the date of the stars of a catalogue, moved by their proper motion
+//the stars are stored as cartesian unit vectors of J2000 and their velocities, so that the proper motion and the
+//precession and nutation are passes over primitive arrays without trigonometric functions
+//the positions are computed once per bucket of PrecessionNutation#at and reused for all the instants of the bucket,
+//the positions of the last few buckets are kept, for the observers of the same catalogue at different dates
+//by Jiabao WEN
+final class StarPositions {
+
+    private final static double DAYS_PER_JULIAN_YEAR = 365.25;
+    private final static int CACHED_BUCKETS = 4;
+
+    //interleaved (x0, y0, z0, x1...)
+    private final double[] vectors;
+    private final double[] velocities;
+
+    //guarded by itself, the positions of the last used buckets, keyed by the index of their bucket
+    private final Map<Long, double[]> buckets = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, double[]> eldest) {
+            return size() > CACHED_BUCKETS;
+        }
+    };
+
+    /**
+     * @param stars stars whose positions are given at J2000
+     */
+    StarPositions(List<Star> stars) {
+        vectors = new double[3 * stars.size()];
+        velocities = new double[3 * stars.size()];
+        for (int i = 0; i < stars.size(); i++) {
+            Star star = stars.get(i);
+            double ra = star.equatorialPos().ra();
+            double dec = star.equatorialPos().dec();
+            double sinRa = Math.sin(ra), cosRa = Math.cos(ra);
+            double sinDec = Math.sin(dec), cosDec = Math.cos(dec);
+            vectors[3 * i] = cosDec * cosRa;
+            vectors[3 * i + 1] = cosDec * sinRa;
+            vectors[3 * i + 2] = sinDec;
+            //the proper motion in right ascension is already multiplied by cos(dec)
+            double pmRa = star.properMotionRa();
+            double pmDec = star.properMotionDec();
+            velocities[3 * i] = -pmRa * sinRa - pmDec * sinDec * cosRa;
+            velocities[3 * i + 1] = pmRa * cosRa - pmDec * sinDec * sinRa;
+            velocities[3 * i + 2] = pmDec * cosDec;
+        }
+    }
+
+    /**
+     * @param when an instant
+     * @return the right ascension and the declination of each star at the date of the bucket containing when,
+     * interleaved (ra0, dec0, ra1, dec1...), the array must not be modified
+     */
+    double[] at(ZonedDateTime when) {
+        long bucket = PrecessionNutation.bucket(when);
+        double[] positions;
+        synchronized (buckets) {
+            positions = buckets.get(bucket);
+        }
+        if (positions == null) {
+            positions = positionsAt(PrecessionNutation.at(when));
+            synchronized (buckets) {
+                buckets.put(bucket, positions);
+            }
+        }
+        return positions;
+    }
+
+    private double[] positionsAt(PrecessionNutation precessionNutation) {
+        double years = Epoch.J2000.daysUntil(precessionNutation.when()) / DAYS_PER_JULIAN_YEAR;
+        double[] moved = new double[vectors.length];
+        for (int i = 0; i < vectors.length; i++) {
+            moved[i] = vectors[i] + velocities[i] * years;
+        }
+        precessionNutation.applyToVectors(moved, moved);
+
+        double[] positions = new double[2 * (vectors.length / 3)];
+        for (int i = 0, j = 0; i < moved.length; i += 3, j += 2) {
+            double x = moved[i], y = moved[i + 1], z = moved[i + 2];
+            //the moved vectors aren't unit vectors anymore
+            double sinDec = z / Math.sqrt(x * x + y * y + z * z);
+            positions[j] = Angle.normalizePositive(Math.atan2(y, x));
+            positions[j + 1] = Math.asin(ClosedInterval.clip(sinDec, -1, 1));
+        }
+        return positions;
+    }
+}
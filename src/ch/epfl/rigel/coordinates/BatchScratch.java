@@ -0,0 +1,32 @@
+package ch.epfl.rigel.coordinates;
+
+//working arrays of the batch conversions of one thread, which convert their points by blocks through the batch
+//methods of FastTrig, so that no array is allocated by a conversion
+//by Jiabao WEN
+final class BatchScratch {
+
+    /**
+     * number of points of a block
+     */
+    final static int BLOCK_SIZE = 512;
+
+    private final static ThreadLocal<BatchScratch> SCRATCH = ThreadLocal.withInitial(BatchScratch::new);
+
+    //each conversion gives its own meaning to the arrays, none of them is read before being written in a block
+    final double[] a = new double[BLOCK_SIZE];
+    final double[] b = new double[BLOCK_SIZE];
+    final double[] c = new double[BLOCK_SIZE];
+    final double[] d = new double[BLOCK_SIZE];
+    final double[] e = new double[BLOCK_SIZE];
+    final double[] f = new double[BLOCK_SIZE];
+
+    private BatchScratch() {
+    }
+
+    /**
+     * @return the working arrays of the current thread
+     */
+    static BatchScratch current() {
+        return SCRATCH.get();
+    }
+}
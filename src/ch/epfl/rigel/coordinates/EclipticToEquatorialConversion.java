@@ -4,6 +4,8 @@ import java.time.ZonedDateTime;
 import java.util.function.Function;
 
 import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.math.ClosedInterval;
+import ch.epfl.rigel.math.FastTrig;
 import ch.epfl.rigel.math.Polynomial;
 
 import static ch.epfl.rigel.astronomy.Epoch.J2000;
@@ -25,11 +27,19 @@ public final class EclipticToEquatorialConversion implements Function<EclipticCo
      */
     public EclipticToEquatorialConversion(ZonedDateTime when) {
         double nbrOfJulCent = J2000.julianCenturiesUntil(when);
-        double epsilon = POL_EPSILON.at(nbrOfJulCent);
+        double epsilon = meanObliquity(nbrOfJulCent);
         this.sinEpsilon = sin(epsilon);
         this.cosEpsilon = cos(epsilon);
     }
 
+    /**
+     * @param julianCenturies number of Julian centuries since J2000
+     * @return the mean obliquity of the ecliptic
+     */
+    static double meanObliquity(double julianCenturies) {
+        return POL_EPSILON.at(julianCenturies);
+    }
+
     /**
      * @param ecl takes an object from Ecliptic Coordinates ecl(lon <longitude>, lat <latitude>)
      * @return an Equatorial Coordinates object converted from the ecl parameter
@@ -40,11 +50,55 @@ public final class EclipticToEquatorialConversion implements Function<EclipticCo
         double sinLambda = sin(ecl.lon());
 
         double rightAscension = atan2(sinLambda * cosEpsilon - tan(ecl.lat()) * sinEpsilon, cos(ecl.lon()));
-        double declination = asin(sin(ecl.lat()) * cosEpsilon + cos(ecl.lat()) * sinEpsilon * sinLambda);
+        //the rounding errors can take the sine of the declination slightly out of [-1, 1]
+        double declination = asin(ClosedInterval.clip(
+                sin(ecl.lat()) * cosEpsilon + cos(ecl.lat()) * sinEpsilon * sinLambda, -1, 1));
 
         double reducedRightAscension = Angle.normalizePositive(rightAscension);
 
-        return EquatorialCoordinates.of(reducedRightAscension, declination);
+        return EquatorialCoordinates.ofUnchecked(reducedRightAscension, declination);
+    }
+
+    /**
+     * converts many points by blocks with the batch methods of FastTrig, without any coordinates object,
+     * apply stays the exact reference and is the one used by the models of the solar system
+     *
+     * @param in   interleaved longitudes and latitudes (lon0, lat0, lon1, lat1...)
+     * @param out  destination of the interleaved right ascensions and declinations, can be in
+     * @param from index of the first point
+     * @param to   index after the last point
+     */
+    public void applyTo(double[] in, double[] out, int from, int to) {
+        BatchScratch scratch = BatchScratch.current();
+        double[] lons = scratch.a, lats = scratch.b;
+        double[] sinLambdas = scratch.c, cosLambdas = scratch.d, sinBetas = scratch.e, cosBetas = scratch.f;
+        //once the sines and cosines are computed, the first arrays hold the arguments of atan2 and asin
+        double[] ys = scratch.a, sinDeclinations = scratch.b;
+
+        for (int start = from; start < to; start += BatchScratch.BLOCK_SIZE) {
+            int count = Math.min(BatchScratch.BLOCK_SIZE, to - start);
+            for (int k = 0, i = 2 * start; k < count; k++, i += 2) {
+                lons[k] = in[i];
+                lats[k] = in[i + 1];
+            }
+            FastTrig.sinCos(lons, sinLambdas, cosLambdas, 0, count);
+            FastTrig.sinCos(lats, sinBetas, cosBetas, 0, count);
+
+            for (int k = 0; k < count; k++) {
+                double sinLambda = sinLambdas[k];
+                double sinBeta = sinBetas[k];
+                double cosBeta = cosBetas[k];
+                ys[k] = sinLambda * cosEpsilon - sinBeta / cosBeta * sinEpsilon;
+                sinDeclinations[k] = ClosedInterval.clip(sinBeta * cosEpsilon + cosBeta * sinEpsilon * sinLambda, -1, 1);
+            }
+            FastTrig.atan2(ys, cosLambdas, ys, 0, count);
+            FastTrig.asin(sinDeclinations, sinDeclinations, 0, count);
+
+            for (int k = 0, i = 2 * start; k < count; k++, i += 2) {
+                out[i] = Angle.normalizePositive(ys[k]);
+                out[i + 1] = sinDeclinations[k];
+            }
+        }
     }
 
     /**
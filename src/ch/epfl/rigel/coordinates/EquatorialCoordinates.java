@@ -35,6 +35,17 @@ public final class EquatorialCoordinates extends SphericalCoordinates { // cette
         return new EquatorialCoordinates(ra, dec);
     }
 
+    /**
+     * same as of, without checking the arguments, for the conversions which compute them in the right intervals
+     *
+     * @param ra right ascension, in [0, 2pi[
+     * @param dec declination, in [-pi/2, pi/2]
+     * @return the coordinates
+     */
+    static EquatorialCoordinates ofUnchecked(double ra, double dec) {
+        return new EquatorialCoordinates(ra, dec);
+    }
+
 
     /**
      * @return value of ra (in radians) with the lon() getter of the super class
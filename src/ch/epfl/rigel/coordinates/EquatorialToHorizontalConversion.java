@@ -3,6 +3,8 @@ package ch.epfl.rigel.coordinates;
 import java.time.ZonedDateTime;
 
 import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.math.ClosedInterval;
+import ch.epfl.rigel.math.FastTrig;
 
 import java.util.function.Function;
 
@@ -37,13 +39,59 @@ public final class EquatorialToHorizontalConversion implements Function<Equatori
         double sinDeclination = Math.sin(declination);
         double cosDeclination = Math.cos(declination);
 
-        double beforeAsin = sinDeclination * sinPhi + cosDeclination * cosPhi * Math.cos(majH);
+        //the rounding errors can take the sine of the altitude slightly out of [-1, 1]
+        double beforeAsin = ClosedInterval.clip(
+                sinDeclination * sinPhi + cosDeclination * cosPhi * Math.cos(majH), -1, 1);
 
         double h = Math.asin(beforeAsin);
         double azimuth = Math.atan2(-cosDeclination * cosPhi * Math.sin(majH), sinDeclination - sinPhi * beforeAsin);
         double reducedAzimuth = Angle.normalizePositive(azimuth);
 
-        return HorizontalCoordinates.of(reducedAzimuth, h);
+        return HorizontalCoordinates.ofUnchecked(reducedAzimuth, h);
+    }
+
+    /**
+     * converts many points by blocks with the batch methods of FastTrig, without any coordinates object,
+     * apply stays the exact reference
+     *
+     * @param in   interleaved right ascensions and declinations (ra0, dec0, ra1, dec1...)
+     * @param out  destination of the interleaved azimuths and altitudes, can be in
+     * @param from index of the first point
+     * @param to   index after the last point
+     */
+    public void applyTo(double[] in, double[] out, int from, int to) {
+        BatchScratch scratch = BatchScratch.current();
+        double[] hourAngles = scratch.a, declinations = scratch.b;
+        double[] sinDeclinations = scratch.c, cosDeclinations = scratch.d, sinHourAngles = scratch.e, cosHourAngles = scratch.f;
+        //once the sines and cosines are computed, the first arrays hold the arguments of asin and atan2
+        double[] sinAltitudes = scratch.a, ys = scratch.b, xs = scratch.c;
+
+        for (int start = from; start < to; start += BatchScratch.BLOCK_SIZE) {
+            int count = Math.min(BatchScratch.BLOCK_SIZE, to - start);
+            for (int k = 0, i = 2 * start; k < count; k++, i += 2) {
+                hourAngles[k] = siderealTime - in[i];
+                declinations[k] = in[i + 1];
+            }
+            FastTrig.sinCos(declinations, sinDeclinations, cosDeclinations, 0, count);
+            FastTrig.sinCos(hourAngles, sinHourAngles, cosHourAngles, 0, count);
+
+            for (int k = 0; k < count; k++) {
+                double sinDeclination = sinDeclinations[k];
+                double cosDeclination = cosDeclinations[k];
+                double beforeAsin = ClosedInterval.clip(
+                        sinDeclination * sinPhi + cosDeclination * cosPhi * cosHourAngles[k], -1, 1);
+                sinAltitudes[k] = beforeAsin;
+                ys[k] = -cosDeclination * cosPhi * sinHourAngles[k];
+                xs[k] = sinDeclination - sinPhi * beforeAsin;
+            }
+            FastTrig.atan2(ys, xs, ys, 0, count);
+            FastTrig.asin(sinAltitudes, sinAltitudes, 0, count);
+
+            for (int k = 0, i = 2 * start; k < count; k++, i += 2) {
+                out[i] = Angle.normalizePositive(ys[k]);
+                out[i + 1] = sinAltitudes[k];
+            }
+        }
     }
 
     /**
@@ -36,6 +36,17 @@ public final class HorizontalCoordinates extends SphericalCoordinates {
         return new HorizontalCoordinates(az, alt);
     }
 
+    /**
+     * same as of, without checking the arguments, for the conversions which compute them in the right intervals
+     *
+     * @param az azimuth, in [0, 2pi[
+     * @param alt altitude, in [-pi/2, pi/2]
+     * @return the coordinates
+     */
+    static HorizontalCoordinates ofUnchecked(double az, double alt) {
+        return new HorizontalCoordinates(az, alt);
+    }
+
     /**
      * @param azDeg  azimuth in degree
      * @param altDeg altitude in degree
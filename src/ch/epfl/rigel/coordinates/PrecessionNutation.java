@@ -0,0 +1,188 @@
+package ch.epfl.rigel.coordinates;
+
+import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.math.ClosedInterval;
+import ch.epfl.rigel.math.Polynomial;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import static ch.epfl.rigel.astronomy.Epoch.J2000;
+import static java.lang.Math.*;
+
+//immutable class represents the rotation from the mean equatorial coordinates of J2000
+//to the true equatorial coordinates of a date, precession (IAU 1976) followed by nutation (main terms of IAU 1980)
+//by Jiabao WEN
+public final class PrecessionNutation implements Function<EquatorialCoordinates, EquatorialCoordinates> {
+
+    //the equator moves by about 50" per year, so by less than 0.25" from the middle of a bucket
+    private final static double CENTURIES_PER_BUCKET = 1e-4;
+    private final static double MILLIS_PER_JC = 1000 * 60 * 60 * 24 * 365.25 * 100;
+    //enough for a few observers, or a scrubbed night, at different dates at the same time
+    private final static int CACHED_BUCKETS = 8;
+
+    private static final Polynomial POL_ZETA = Polynomial.of(Angle.ofArcsec(0.017998), Angle.ofArcsec(0.30188),
+            Angle.ofArcsec(2306.2181), 0);
+    private static final Polynomial POL_Z = Polynomial.of(Angle.ofArcsec(0.018203), Angle.ofArcsec(1.09468),
+            Angle.ofArcsec(2306.2181), 0);
+    private static final Polynomial POL_THETA = Polynomial.of(-Angle.ofArcsec(0.041833), -Angle.ofArcsec(0.42665),
+            Angle.ofArcsec(2004.3109), 0);
+
+    //guarded by itself, the rotations of the last used buckets, keyed by the index of their bucket
+    private final static Map<Long, PrecessionNutation> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, PrecessionNutation> eldest) {
+            return size() > CACHED_BUCKETS;
+        }
+    };
+
+    private final ZonedDateTime when;
+    //row-major rotation matrix
+    private final double[] matrix;
+
+    /**
+     * @param when the date of the equator and the equinox of the converted coordinates
+     */
+    public PrecessionNutation(ZonedDateTime when) {
+        double t = J2000.julianCenturiesUntil(when);
+
+        double[] precession = multiply(rotationZ(-POL_Z.at(t)),
+                multiply(rotationY(POL_THETA.at(t)), rotationZ(-POL_ZETA.at(t))));
+
+        //low precision nutation (0.5" in longitude, 0.1" in obliquity)
+        double moonNode = Angle.ofDeg(125.04452 - 1934.136261 * t);
+        double sunLongitude = Angle.ofDeg(280.4665 + 36000.7698 * t);
+        double moonLongitude = Angle.ofDeg(218.3165 + 481267.8813 * t);
+        double nutationLongitude = Angle.ofArcsec(-17.20 * sin(moonNode) - 1.32 * sin(2 * sunLongitude)
+                - 0.23 * sin(2 * moonLongitude) + 0.21 * sin(2 * moonNode));
+        double nutationObliquity = Angle.ofArcsec(9.20 * cos(moonNode) + 0.57 * cos(2 * sunLongitude)
+                + 0.10 * cos(2 * moonLongitude) - 0.09 * cos(2 * moonNode));
+        double meanObliquity = EclipticToEquatorialConversion.meanObliquity(t);
+
+        double[] nutation = multiply(rotationX(-(meanObliquity + nutationObliquity)),
+                multiply(rotationZ(-nutationLongitude), rotationX(meanObliquity)));
+
+        this.when = when;
+        this.matrix = multiply(nutation, precession);
+    }
+
+    /**
+     * the rotation is computed for the middle of a bucket of about 3.65 days containing when,
+     * and reused for the following calls falling in the same bucket, the rotations of the last few buckets are kept
+     *
+     * @param when an instant
+     * @return the rotation for an instant close to when
+     */
+    public static PrecessionNutation at(ZonedDateTime when) {
+        double centuries = J2000.julianCenturiesUntil(when);
+        long bucket = bucket(when);
+        PrecessionNutation cached;
+        synchronized (CACHE) {
+            cached = CACHE.get(bucket);
+        }
+        if (cached == null) {
+            double toMiddle = (bucket + 0.5) * CENTURIES_PER_BUCKET - centuries;
+            cached = new PrecessionNutation(when.plus(round(toMiddle * MILLIS_PER_JC), ChronoUnit.MILLIS));
+            synchronized (CACHE) {
+                CACHE.put(bucket, cached);
+            }
+        }
+        return cached;
+    }
+
+    /**
+     * @param when an instant
+     * @return the index of the bucket of about 3.65 days containing when, the instants of a bucket share the rotation
+     * given by at
+     */
+    public static long bucket(ZonedDateTime when) {
+        return (long) floor(J2000.julianCenturiesUntil(when) / CENTURIES_PER_BUCKET);
+    }
+
+    /**
+     * @return the date of the equator and the equinox of the converted coordinates
+     */
+    public ZonedDateTime when() {
+        return when;
+    }
+
+    /**
+     * @param equ mean equatorial coordinates of J2000
+     * @return the true equatorial coordinates of the date
+     */
+    @Override
+    public EquatorialCoordinates apply(EquatorialCoordinates equ) {
+        double cosDec = cos(equ.dec());
+        double[] vector = {cosDec * cos(equ.ra()), cosDec * sin(equ.ra()), sin(equ.dec())};
+        applyToVectors(vector, vector);
+
+        return EquatorialCoordinates.ofUnchecked(Angle.normalizePositive(atan2(vector[1], vector[0])),
+                asin(ClosedInterval.clip(vector[2], -1, 1)));
+    }
+
+    /**
+     * rotates many vectors in one pass, without any trigonometric function
+     *
+     * @param in  cartesian vectors in the mean equatorial frame of J2000, interleaved (x0, y0, z0, x1...)
+     * @param out destination of the rotated vectors, can be in
+     */
+    public void applyToVectors(double[] in, double[] out) {
+        double m00 = matrix[0], m01 = matrix[1], m02 = matrix[2];
+        double m10 = matrix[3], m11 = matrix[4], m12 = matrix[5];
+        double m20 = matrix[6], m21 = matrix[7], m22 = matrix[8];
+        for (int i = 0; i + 2 < in.length; i += 3) {
+            double x = in[i], y = in[i + 1], z = in[i + 2];
+            out[i] = m00 * x + m01 * y + m02 * z;
+            out[i + 1] = m10 * x + m11 * y + m12 * z;
+            out[i + 2] = m20 * x + m21 * y + m22 * z;
+        }
+    }
+
+    private static double[] rotationX(double angle) {
+        double c = cos(angle), s = sin(angle);
+        return new double[]{1, 0, 0, 0, c, s, 0, -s, c};
+    }
+
+    private static double[] rotationY(double angle) {
+        double c = cos(angle), s = sin(angle);
+        return new double[]{c, 0, -s, 0, 1, 0, s, 0, c};
+    }
+
+    private static double[] rotationZ(double angle) {
+        double c = cos(angle), s = sin(angle);
+        return new double[]{c, s, 0, -s, c, 0, 0, 0, 1};
+    }
+
+    private static double[] multiply(double[] a, double[] b) {
+        double[] product = new double[9];
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                for (int k = 0; k < 3; k++) {
+                    product[3 * row + column] += a[3 * row + k] * b[3 * k + column];
+                }
+            }
+        }
+        return product;
+    }
+
+    /**
+     * @throws UnsupportedOperationException to avoid any mistake in using this method
+     * @see Object#hashCode()
+     */
+    @Override
+    public final int hashCode() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @throws UnsupportedOperationException to avoid any mistake in using this method
+     * @see boolean#equals(Object)
+     */
+    @Override
+    public final boolean equals(final Object o) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -1,6 +1,8 @@
 package ch.epfl.rigel.coordinates;
 
 import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.math.ClosedInterval;
+import ch.epfl.rigel.math.FastTrig;
 
 import java.util.Locale;
 import java.util.function.Function;
@@ -72,6 +74,41 @@ public final class StereographicProjection implements Function<HorizontalCoordin
         return CartesianCoordinates.of(x, y);
     }
 
+    /**
+     * projects many points by blocks with the batch methods of FastTrig, without any coordinates object,
+     * apply stays the exact reference
+     *
+     * @param in   interleaved azimuths and altitudes (az0, alt0, az1, alt1...)
+     * @param out  destination of the interleaved coordinates (x0, y0, x1, y1...), can be in
+     * @param from index of the first point
+     * @param to   index after the last point
+     */
+    public void applyTo(double[] in, double[] out, int from, int to) {
+        BatchScratch scratch = BatchScratch.current();
+        double[] lambdaDeltas = scratch.a, phys = scratch.b;
+        double[] sinPhys = scratch.c, cosPhys = scratch.d, sinLambdaDeltas = scratch.e, cosLambdaDeltas = scratch.f;
+
+        for (int start = from; start < to; start += BatchScratch.BLOCK_SIZE) {
+            int count = Math.min(BatchScratch.BLOCK_SIZE, to - start);
+            for (int k = 0, i = 2 * start; k < count; k++, i += 2) {
+                lambdaDeltas[k] = in[i] - lambda0;
+                phys[k] = in[i + 1];
+            }
+            FastTrig.sinCos(phys, sinPhys, cosPhys, 0, count);
+            FastTrig.sinCos(lambdaDeltas, sinLambdaDeltas, cosLambdaDeltas, 0, count);
+
+            for (int k = 0, i = 2 * start; k < count; k++, i += 2) {
+                double sinPhy = sinPhys[k];
+                double cosPhy = cosPhys[k];
+                double cosLambdaDelta = cosLambdaDeltas[k];
+
+                double d = 1 / (1 + sinPhy * sinPhy1 + cosPhy * cosPhy1 * cosLambdaDelta);
+                out[i] = d * cosPhy * sinLambdaDeltas[k];
+                out[i + 1] = d * (sinPhy * cosPhy1 - cosPhy * sinPhy1 * cosLambdaDelta);
+            }
+        }
+    }
+
     /**
      * @param xy cartesian coordinates of a point
      * @return the horizontal coordinates of xy's projection
@@ -90,9 +127,10 @@ public final class StereographicProjection implements Function<HorizontalCoordin
             phy = phy1;
         } else {
             lambda = Math.atan2(x * sinC, (rou * cosPhy1 * cosC - y * sinPhy1 * sinC)) + lambda0;
-            phy = Math.asin(cosC * sinPhy1 + y * sinC * cosPhy1 / rou);
+            //the rounding errors can take the sine of the altitude slightly out of [-1, 1]
+            phy = Math.asin(ClosedInterval.clip(cosC * sinPhy1 + y * sinC * cosPhy1 / rou, -1, 1));
         }
-        return HorizontalCoordinates.of(Angle.normalizePositive(lambda), phy);
+        return HorizontalCoordinates.ofUnchecked(Angle.normalizePositive(lambda), phy);
     }
 
     /**
@@ -14,38 +14,43 @@ public class BlackBodyColor {
     private final static ClosedInterval COLOR_INTERVAL = ClosedInterval.of(MIN_TEMP, MAX_TEMP);
 
 
+    //the colors of the temperatures from MIN_TEMP to MAX_TEMP by step of TEMP_STEP, read once from the file
+    private final static int TEMP_STEP = 100;
+    private final static Color[] COLORS = readColors();
+
     /**
      * @param tempInKelvin : temperature in Kelvin of the concerned black body (valid values goes from 1000K to 40 000 included)
      * @return an object of type Color that is corresponding to the given temperature in kelvin
      */
     public static Color colorForTemperature(int tempInKelvin) {
+        int roundedGivenTemp = (int) Preconditions.checkInInterval(COLOR_INTERVAL, tempInKelvin);
+
+        //checking if the given temp is a multiple of 100
+        if (tempInKelvin % TEMP_STEP != 0) {
+            roundedGivenTemp = (int) Math.round(tempInKelvin / (double) TEMP_STEP) * TEMP_STEP;
+        }
+        return COLORS[(roundedGivenTemp - MIN_TEMP) / TEMP_STEP];
+    }
 
+    private static Color[] readColors() {
         try (BufferedReader in = new BufferedReader(new InputStreamReader(
                 BlackBodyColor.class.getResourceAsStream("/bbr_color.txt")))) {
 
-            int roundedGivenTemp = (int) Preconditions.checkInInterval(COLOR_INTERVAL, tempInKelvin);
-
-            //checking if the given temp is a multiple of 100
-            if (tempInKelvin % 100 != 0) {
-                roundedGivenTemp = (int) Math.round(tempInKelvin / 100.0) * 100;
-            }
-
             //skipping the 20 first lines (all of the # starting lines and the first 2deg)
             for (int i = 0; i < 20; ++i) {
                 in.readLine();
             }
 
-            int nbrOfLinesToSkip = (roundedGivenTemp - 1000) / 100;
-            int CHAR_PER_LGN = 88;
-            int charSkipped = nbrOfLinesToSkip * CHAR_PER_LGN * 2;
-
-            in.skip(charSkipped);
-
-            return Color.web(in.readLine().substring(80, 87));
+            //each temperature has a 10deg line followed by a 2deg line, only the 10deg lines are kept
+            Color[] colors = new Color[(MAX_TEMP - MIN_TEMP) / TEMP_STEP + 1];
+            for (int i = 0; i < colors.length; ++i) {
+                colors[i] = Color.web(in.readLine().substring(80, 87));
+                in.readLine();
+            }
+            return colors;
 
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
-
     }
 }
@@ -0,0 +1,87 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.astronomy.AsterismLoader;
+import ch.epfl.rigel.astronomy.HygDatabaseLoader;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.astronomy.StarFilter;
+import javafx.concurrent.Task;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+//loads the star catalogue in the background, so that the window can show the progress of the loading
+//the asterisms are parsed while the stars are loaded, their stars are resolved once both are done
+//by Jiabao WEN
+final class CatalogueLoadingTask extends Task<StarCatalogue> {
+
+    private final static int STEPS = 3;
+
+    private final String starsResource;
+    private final String asterismsResource;
+    private final StarFilter filter;
+
+    /**
+     * @param starsResource     name of the resource of the HYG database
+     * @param asterismsResource name of the resource of the asterisms
+     * @param filter            selects the stars of the catalogue, the stars of the asterisms are always kept
+     */
+    CatalogueLoadingTask(String starsResource, String asterismsResource, StarFilter filter) {
+        this.starsResource = starsResource;
+        this.asterismsResource = asterismsResource;
+        this.filter = filter;
+    }
+
+    /**
+     * @return the star catalogue
+     * @throws IOException if one of the resources can't be read
+     * @see Task#call()
+     */
+    @Override
+    protected StarCatalogue call() throws IOException {
+        updateProgress(0, STEPS);
+        CompletableFuture<List<int[]>> asterisms = CompletableFuture.supplyAsync(() -> {
+            try (InputStream as = resourceStream(asterismsResource)) {
+                return AsterismLoader.INSTANCE.parse(as);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        //the filter must know the stars of the asterisms, the stars can't be loaded before the asterisms
+        StarCatalogue.Loader starsLoader = filter == StarFilter.ALL
+                ? HygDatabaseLoader.INSTANCE
+                : HygDatabaseLoader.INSTANCE.filtered(filter.keeping(join(asterisms)));
+
+        StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        try (InputStream hs = resourceStream(starsResource)) {
+            builder.loadFrom(hs, starsLoader);
+        }
+        updateProgress(1, STEPS);
+
+        AsterismLoader.INSTANCE.addTo(join(asterisms), builder);
+        updateProgress(2, STEPS);
+
+        StarCatalogue catalogue = builder.build();
+        updateProgress(STEPS, STEPS);
+        return catalogue;
+    }
+
+    private static List<int[]> join(CompletableFuture<List<int[]>> asterisms) throws IOException {
+        try {
+            return asterisms.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+
+    private InputStream resourceStream(String resourceName) {
+        return getClass().getResourceAsStream(resourceName);
+    }
+}
@@ -0,0 +1,121 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.astronomy.HygDatabaseLoader;
+import ch.epfl.rigel.astronomy.Star;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import javafx.application.Platform;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.function.Consumer;
+
+//watches a file of stars in the format of the HYG database, which are shown over the base catalogue
+//every time the file changes, the overlay is applied to the base catalogue as a delta,
+//a star of the overlay replaces the star of the catalogue with the same Hipparcos number, or is added
+//an overlay which can't be read or parsed is rejected, the catalogue shown stays the last one applied
+//by Jiabao WEN
+final class CatalogueOverlayWatcher implements AutoCloseable {
+
+    private final Path overlay;
+    private final StarCatalogue base;
+    private final Consumer<StarCatalogue> onReload;
+    private final Consumer<String> onRejected;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    /**
+     * @param overlay    file of the overlay, it doesn't need to exist
+     * @param base       catalogue on which the overlay is applied
+     * @param onReload   called on the JavaFX Application Thread with the new catalogue, every time the file changes
+     * @param onRejected called on the JavaFX Application Thread with the reason, every time the overlay is rejected
+     * @throws IOException if the directory of the file can't be watched
+     */
+    CatalogueOverlayWatcher(Path overlay, StarCatalogue base, Consumer<StarCatalogue> onReload,
+                            Consumer<String> onRejected) throws IOException {
+        this.overlay = overlay.toAbsolutePath();
+        this.base = base;
+        this.onReload = onReload;
+        this.onRejected = onRejected;
+        this.watchService = this.overlay.getFileSystem().newWatchService();
+        this.overlay.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        this.thread = new Thread(this::watch, "catalogue-overlay-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * applies the current overlay, then starts watching the file
+     */
+    void start() {
+        reload();
+        thread.start();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= overlay.getFileName().equals(event.context());
+                }
+                key.reset();
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            //the watcher is closed
+        }
+    }
+
+    private void reload() {
+        try {
+            StarCatalogue catalogue = base.withDelta(overlayDelta());
+            Platform.runLater(() -> onReload.accept(catalogue));
+        } catch (IOException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            //the file can be read while it's being written, the next change will reload it
+            //the parse errors of the loader are IllegalArgumentException (invalid numbers, names or positions)
+            //and IndexOutOfBoundsException (missing columns)
+            String reason = e.getMessage() == null ? e.toString() : e.getMessage();
+            Platform.runLater(() -> onRejected.accept(reason));
+        }
+    }
+
+    private StarCatalogue.Delta overlayDelta() throws IOException {
+        StarCatalogue.Delta delta = new StarCatalogue.Delta();
+        if (!Files.exists(overlay)) {
+            return delta;
+        }
+        StarCatalogue.Builder overlayStars = new StarCatalogue.Builder();
+        try (InputStream in = Files.newInputStream(overlay)) {
+            overlayStars.loadFrom(in, HygDatabaseLoader.INSTANCE);
+        }
+        for (Star star : overlayStars.stars()) {
+            if (star.hipparcosId() != 0 && base.starIndex(star.hipparcosId()) != -1) {
+                delta.replaceStar(star);
+            } else {
+                delta.addStar(star);
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * stops watching the file
+     *
+     * @throws IOException if the watch service can't be closed
+     * @see AutoCloseable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
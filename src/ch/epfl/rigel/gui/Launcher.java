@@ -0,0 +1,16 @@
+package ch.epfl.rigel.gui;
+
+//starts the application from the class path, where the launcher of the JDK refuses a main class extending Application
+//by Jiabao WEN
+public final class Launcher {
+
+    private Launcher() {
+    }
+
+    /**
+     * @param args arguments of the application, see Main
+     */
+    public static void main(String[] args) {
+        Main.main(args);
+    }
+}
@@ -4,6 +4,7 @@ import ch.epfl.rigel.astronomy.*;
 import ch.epfl.rigel.coordinates.GeographicCoordinates;
 import ch.epfl.rigel.coordinates.HorizontalCoordinates;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.beans.binding.StringExpression;
 import javafx.beans.value.ObservableObjectValue;
@@ -34,6 +35,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -48,6 +51,11 @@ import java.util.function.UnaryOperator;
 
 public class Main extends Application {
 
+    private final static String USAGE = "usage : Main [--magnitude=<magnitude limite>] [--overlay=<fichier HYG>]";
+
+    private CatalogueOverlayWatcher overlayWatcher;
+    private Alert overlayAlert;
+
     /**
      * @param args
      */
@@ -55,10 +63,6 @@ public class Main extends Application {
         launch(args);
     }
 
-    private InputStream resourceStream(String resourceName) {
-        return getClass().getResourceAsStream(resourceName);
-    }
-
     /**
      * The main entry point for all JavaFX applications.
      * The start method is called after the init method has returned,
@@ -78,78 +82,169 @@ public class Main extends Application {
      */
     @Override
     public void start(Stage primaryStage) throws Exception {
-        try (InputStream hs = resourceStream("/hygdata_v3.csv");
-             InputStream as = resourceStream("/asterisms.txt")) {
-            StarCatalogue catalogue = new StarCatalogue.Builder()
-                    .loadFrom(hs, HygDatabaseLoader.INSTANCE)
-                    .loadFrom(as, AsterismLoader.INSTANCE)
-                    .build();
-            BorderPane root = new BorderPane();
-
-            primaryStage.setTitle("Rigel");
-            primaryStage.setMinWidth(800);
-            primaryStage.setMinHeight(600);
-
-            GeographicCoordinates position = GeographicCoordinates.ofDeg(6.57, 46.52);
-            HorizontalCoordinates center = HorizontalCoordinates.ofDeg(180, 15);
-
-            ZonedDateTime when = ZonedDateTime.now();
-            DateTimeBean dateTimeBean = new DateTimeBean();
-            dateTimeBean.setZonedDateTime(when);
-
-            ObserverLocationBean observerLocationBean =
-                    new ObserverLocationBean();
-            observerLocationBean.setCoordinates(position);
-
-            ViewingParametersBean viewingParametersBean = new ViewingParametersBean();
-            viewingParametersBean.setCenter(center);
-            viewingParametersBean.setFieldOfViewDeg(100);
-
-            SkyCanvasManager canvasManager = new SkyCanvasManager(
-                    catalogue,
-                    dateTimeBean,
-                    observerLocationBean,
-                    viewingParametersBean);
-
-            HBox controlBar = controlBar(observerLocationBean, dateTimeBean);
-
-            HBox bottomInfoBar = new HBox();
-            Button toQuiz = new Button("Test yourself!");
-            toQuiz.setOnAction(e -> primaryStage.setScene(new Scene(quizPage())));
-            bottomInfoBar.getChildren().addAll(toQuiz, moreInfo());
-            bottomInfoBar.setPadding(new Insets(0, 200, 0, 200));
-            bottomInfoBar.setSpacing(250);
-
-            BorderPane infoBar = informationBar(viewingParametersBean, canvasManager);
-            infoBar.setBottom(bottomInfoBar);
-
-            Pane skyPane = skyPane(canvasManager);
-
-            root.setTop(controlBar);
-            root.setBottom(infoBar);
-            root.setCenter(skyPane);
-
-            primaryStage.setScene(new Scene(root));
-            primaryStage.show();
-            skyPane.requestFocus();
+        ch.epfl.rigel.profiling.Stage.exportToFlightRecorder();
+        primaryStage.setTitle("Rigel");
+        primaryStage.setMinWidth(800);
+        primaryStage.setMinHeight(600);
+
+        //--magnitude=<limiting magnitude> loads only the stars bright enough, for the less powerful computers
+        String limitingMagnitude = getParameters().getNamed().get("magnitude");
+        StarFilter filter;
+        try {
+            filter = limitingMagnitude == null
+                    ? StarFilter.ALL
+                    : StarFilter.brighterThan(Double.parseDouble(limitingMagnitude));
+        } catch (IllegalArgumentException e) {
+            //NumberFormatException, or NaN
+            System.err.println("--magnitude=" + limitingMagnitude + " : la magnitude limite doit être un nombre");
+            System.err.println(USAGE);
+            Platform.exit();
+            return;
         }
+        CatalogueLoadingTask loading = new CatalogueLoadingTask("/hygdata_v3.csv", "/asterisms.txt", filter);
+
+        ProgressIndicator progress = new ProgressIndicator();
+        progress.progressProperty().bind(loading.progressProperty());
+        VBox loadingPane = new VBox(new Label("Chargement du catalogue..."), progress);
+        loadingPane.setStyle("-fx-spacing: 10; -fx-alignment: center;");
+
+        loading.setOnSucceeded(e -> {
+            try {
+                showSky(primaryStage, loading.getValue());
+            } catch (IOException exception) {
+                fail(exception);
+            }
+        });
+        loading.setOnFailed(e -> fail(loading.getException()));
+
+        primaryStage.setScene(new Scene(loadingPane, 800, 600));
+        primaryStage.show();
+
+        Thread loadingThread = new Thread(loading, "catalogue-loading");
+        loadingThread.setDaemon(true);
+        loadingThread.start();
     }
 
-    private HBox controlBar(ObserverLocationBean observerLocationBean, DateTimeBean dateTimeBean) throws IOException {
+    private void showSky(Stage primaryStage, StarCatalogue catalogue) throws IOException {
+        BorderPane root = new BorderPane();
+
+        GeographicCoordinates position = GeographicCoordinates.ofDeg(6.57, 46.52);
+        HorizontalCoordinates center = HorizontalCoordinates.ofDeg(180, 15);
+
+        ZonedDateTime when = ZonedDateTime.now();
+        DateTimeBean dateTimeBean = new DateTimeBean();
+        dateTimeBean.setZonedDateTime(when);
+
+        ObserverLocationBean observerLocationBean =
+                new ObserverLocationBean();
+        observerLocationBean.setCoordinates(position);
+
+        ViewingParametersBean viewingParametersBean = new ViewingParametersBean();
+        viewingParametersBean.setCenter(center);
+        viewingParametersBean.setFieldOfViewDeg(100);
+
+        SkyCanvasManager canvasManager = new SkyCanvasManager(
+                catalogue,
+                dateTimeBean,
+                observerLocationBean,
+                viewingParametersBean);
+
+        //--overlay=<file> shows the stars of a file in the format of the HYG database over the catalogue,
+        //and updates them every time the file changes, the sky is shown without them if the file can't be watched
+        String overlay = getParameters().getNamed().get("overlay");
+        if (overlay != null) {
+            try {
+                overlayWatcher = new CatalogueOverlayWatcher(Path.of(overlay), catalogue,
+                        canvasManager.catalogueProperty()::set, reason -> overlayRejected(overlay, reason));
+                overlayWatcher.start();
+            } catch (IOException | InvalidPathException e) {
+                overlayRejected(overlay, "impossible de surveiller le fichier (" + e.getMessage() + ")");
+            }
+        }
+
+        HBox controlBar = controlBar(observerLocationBean, dateTimeBean, canvasManager);
+
+        HBox bottomInfoBar = new HBox();
+        Button toQuiz = new Button("Test yourself!");
+        toQuiz.setOnAction(e -> primaryStage.setScene(new Scene(quizPage())));
+        bottomInfoBar.getChildren().addAll(toQuiz, moreInfo());
+        bottomInfoBar.setPadding(new Insets(0, 200, 0, 200));
+        bottomInfoBar.setSpacing(250);
+
+        BorderPane infoBar = informationBar(viewingParametersBean, canvasManager);
+        infoBar.setBottom(bottomInfoBar);
+
+        Pane skyPane = skyPane(canvasManager);
+
+        root.setTop(controlBar);
+        root.setBottom(infoBar);
+        root.setCenter(skyPane);
+
+        primaryStage.setScene(new Scene(root));
+        primaryStage.show();
+        skyPane.requestFocus();
+    }
+
+    /**
+     * reports an error which the application can't recover from, like the failure of the loading of the catalogue,
+     * and stops the application, must be called on the JavaFX Application Thread
+     *
+     * @param error the error
+     */
+    static void fail(Throwable error) {
+        error.printStackTrace();
+        Platform.exit();
+    }
+
+    //tells the user why the stars of the overlay aren't shown, a single window is reused for all the rejections
+    private void overlayRejected(String overlay, String reason) {
+        System.err.println("--overlay=" + overlay + " : " + reason);
+        if (overlayAlert == null) {
+            overlayAlert = new Alert(Alert.AlertType.WARNING);
+            overlayAlert.setTitle("Rigel");
+            overlayAlert.setHeaderText("Les étoiles de " + overlay + " ont été rejetées");
+        }
+        overlayAlert.setContentText(reason);
+        if (!overlayAlert.isShowing()) {
+            overlayAlert.show();
+        }
+    }
+
+    /**
+     * stops watching the file of the overlay
+     *
+     * @throws IOException if the watcher of the overlay can't be closed
+     * @see Application#stop()
+     */
+    @Override
+    public void stop() throws IOException {
+        if (overlayWatcher != null) {
+            overlayWatcher.close();
+        }
+    }
+
+    private HBox controlBar(ObserverLocationBean observerLocationBean, DateTimeBean dateTimeBean,
+                            SkyCanvasManager canvasManager) throws IOException {
         HBox controlBar = new HBox();
 
         //sub-pane
         HBox position = position(observerLocationBean);
 
         TimeAnimator timeAnimator = new TimeAnimator(dateTimeBean);
+        timeAnimator.setLookAhead(canvasManager.lookAhead());
+        timeAnimator.pixelsPerUnitProperty().bind(canvasManager.pixelsPerUnitProperty());
         HBox dateTime = dateTime(dateTimeBean, timeAnimator);
 
         HBox runningTime = runningTime(timeAnimator);
 
+        HBox timeline = timeline(dateTimeBean, timeAnimator, canvasManager);
+
         Separator separator = new Separator(Orientation.VERTICAL);
         Separator separator1 = new Separator(Orientation.VERTICAL);
 
-        controlBar.getChildren().addAll(position, separator, dateTime, separator1, runningTime);
+        Separator separator2 = new Separator(Orientation.VERTICAL);
+
+        controlBar.getChildren().addAll(position, separator, dateTime, separator1, runningTime, separator2, timeline);
 
         controlBar.setStyle("-fx-spacing: 4; -fx-padding: 4;");
 
@@ -275,6 +370,21 @@ public class Main extends Application {
         return runningTime;
     }
 
+    private HBox timeline(DateTimeBean dateTimeBean, TimeAnimator timeAnimator, SkyCanvasManager canvasManager) {
+        HBox timeline = new HBox();
+        timeline.setStyle("-fx-spacing: inherit; -fx-alignment: baseline-left;");
+
+        Label night = new Label("Nuit : ");
+        Slider slider = new NightTimeline(dateTimeBean).slider();
+        slider.setStyle("-fx-pref-width: 200;");
+        slider.disableProperty().bind(timeAnimator.runningProperty());
+        canvasManager.scrubbingProperty().bind(slider.valueChangingProperty());
+
+        timeline.getChildren().addAll(night, slider);
+
+        return timeline;
+    }
+
     private Pane skyPane(SkyCanvasManager canvasManager) {
         Canvas sky = canvasManager.canvas();
         Pane skyPane = new Pane(sky);
@@ -0,0 +1,65 @@
+package ch.epfl.rigel.gui;
+
+import javafx.beans.value.ChangeListener;
+import javafx.scene.control.Slider;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+
+//a slider to scrub through the night of the observation, from the noon before the observed moment to the next noon
+//the slider follows the moment of observation when it's changed elsewhere, and sets it while it's dragged
+//by Jiabao WEN
+final class NightTimeline {
+
+    private final static double MINUTES = Duration.ofDays(1).toMinutes();
+
+    private final Slider slider = new Slider(0, MINUTES, 0);
+    private final DateTimeBean dateTimeBean;
+    private ZonedDateTime noon;
+    //true while the slider and the bean update each other
+    private boolean updating;
+
+    /**
+     * @param dateTimeBean bean of the moment of observation
+     */
+    NightTimeline(DateTimeBean dateTimeBean) {
+        this.dateTimeBean = dateTimeBean;
+        follow();
+
+        ChangeListener<Object> moved = (o, before, after) -> {
+            if (!updating) {
+                follow();
+            }
+        };
+        dateTimeBean.dateProperty().addListener(moved);
+        dateTimeBean.timeProperty().addListener(moved);
+        dateTimeBean.zoneProperty().addListener(moved);
+
+        slider.valueProperty().addListener(o -> {
+            if (!updating) {
+                updating = true;
+                dateTimeBean.setZonedDateTime(noon.plusSeconds(Math.round(slider.getValue() * 60)));
+                updating = false;
+            }
+        });
+    }
+
+    /**
+     * @return the slider, whose value is the number of minutes since noon
+     */
+    Slider slider() {
+        return slider;
+    }
+
+    private void follow() {
+        ZonedDateTime when = dateTimeBean.getZonedDateTime();
+        noon = when.with(LocalTime.NOON);
+        if (when.isBefore(noon)) {
+            noon = noon.minusDays(1);
+        }
+        updating = true;
+        slider.setValue(Duration.between(noon, when).getSeconds() / 60.0);
+        updating = false;
+    }
+}
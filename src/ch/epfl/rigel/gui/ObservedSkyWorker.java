@@ -0,0 +1,185 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.astronomy.Atmosphere;
+import ch.epfl.rigel.astronomy.ObservedSky;
+import ch.epfl.rigel.astronomy.SolarSystem;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import ch.epfl.rigel.profiling.Stage;
+import javafx.application.Platform;
+
+import java.time.ZonedDateTime;
+import java.util.function.BiConsumer;
+
+//computes the observed skies on a background thread, so that the JavaFX Application Thread only paints them
+//only the latest request is kept : the requests made while a sky is computed replace each other,
+//and a new sky is only computed once the previous one has been handed to the JavaFX Application Thread,
+//so that the two slots of the buffers are never written while their sky is painted
+//a request can be cancelled when its sky was computed ahead by the look-ahead of the animation
+//the worker is a platform daemon thread : virtual threads don't exist in the JDK 17 targeted by this tree,
+//they were a preview feature of the JDKs 19 and 20 and are final since the JDK 21
+//by Jiabao WEN
+final class ObservedSkyWorker {
+
+    private final BiConsumer<ObservedSky, Request> onComputed;
+    private final ObservedSky.Buffers buffers = new ObservedSky.Buffers();
+
+    private final Object lock = new Object();
+    //guarded by lock
+    private Request pending;
+    private boolean inFlight;
+    private long cancellations;
+
+    /**
+     * @param onComputed called on the JavaFX Application Thread with every computed sky and its request
+     */
+    ObservedSkyWorker(BiConsumer<ObservedSky, Request> onComputed) {
+        this.onComputed = onComputed;
+        Thread thread = new Thread(this::work, "observed-sky-worker");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * asks for a new sky, replacing the request which is waiting, if any
+     *
+     * @param request parameters of the sky
+     */
+    void request(Request request) {
+        synchronized (lock) {
+            pending = request;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * drops the waiting request and the sky being computed, which won't be handed over
+     */
+    void cancel() {
+        synchronized (lock) {
+            pending = null;
+            cancellations++;
+        }
+    }
+
+    private void work() {
+        try {
+            while (true) {
+                Request request;
+                long cancellation;
+                synchronized (lock) {
+                    while (pending == null || inFlight) {
+                        lock.wait();
+                    }
+                    request = pending;
+                    pending = null;
+                    inFlight = true;
+                    cancellation = cancellations;
+                }
+
+                ObservedSky sky;
+                try {
+                    sky = request.compute(buffers);
+                } catch (RuntimeException e) {
+                    handedOver();
+                    Platform.runLater(() -> Main.fail(e));
+                    continue;
+                }
+                Platform.runLater(() -> {
+                    if (handedOver() == cancellation) {
+                        onComputed.accept(sky, request);
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            //the application stops
+        }
+    }
+
+    private long handedOver() {
+        synchronized (lock) {
+            inFlight = false;
+            lock.notifyAll();
+            return cancellations;
+        }
+    }
+
+    //the immutable parameters of a sky, read on the JavaFX Application Thread when the request is made
+    //by Jiabao WEN
+    static final class Request {
+        private final ZonedDateTime when;
+        private final GeographicCoordinates where;
+        private final StereographicProjection projection;
+        private final StarCatalogue catalogue;
+        private final Atmosphere atmosphere;
+
+        /**
+         * @param when       the moment of observation
+         * @param where      the position of observation
+         * @param projection used stereographic projection
+         * @param catalogue  star catalogue
+         * @param atmosphere atmosphere through which the sky is seen
+         */
+        Request(ZonedDateTime when, GeographicCoordinates where, StereographicProjection projection,
+                StarCatalogue catalogue, Atmosphere atmosphere) {
+            this.when = when;
+            this.where = where;
+            this.projection = projection;
+            this.catalogue = catalogue;
+            this.atmosphere = atmosphere;
+        }
+
+        /**
+         * @return the projection used to compute the sky, with which it must be painted
+         */
+        StereographicProjection projection() {
+            return projection;
+        }
+
+        /**
+         * @return the moment of observation
+         */
+        ZonedDateTime when() {
+            return when;
+        }
+
+        /**
+         * @param when another moment of observation
+         * @return the same request at the given moment
+         */
+        Request at(ZonedDateTime when) {
+            return new Request(when, where, projection, catalogue, atmosphere);
+        }
+
+        /**
+         * @param that another request, can be null
+         * @return true iff both requests observe the same sky from the same position, maybe at different moments
+         */
+        boolean hasSameViewAs(Request that) {
+            return that != null && where == that.where && projection == that.projection
+                    && catalogue == that.catalogue && atmosphere == that.atmosphere;
+        }
+
+        /**
+         * @return the requested sky in its own arrays, computed on the calling thread
+         */
+        ObservedSky compute() {
+            long start = System.nanoTime();
+            ObservedSky sky = new ObservedSky(SolarSystem.at(when), where, projection, catalogue, atmosphere);
+            Stage.SKY_WORKER.record(start);
+            return sky;
+        }
+
+        /**
+         * @param buffers buffers in which the positions are written
+         * @return the requested sky, computed on the calling thread
+         */
+        ObservedSky compute(ObservedSky.Buffers buffers) {
+            long start = System.nanoTime();
+            ObservedSky sky = new ObservedSky(SolarSystem.at(when), where, projection, catalogue, atmosphere, buffers);
+            Stage.SKY_WORKER.record(start);
+            return sky;
+        }
+    }
+}
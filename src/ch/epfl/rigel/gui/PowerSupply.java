@@ -0,0 +1,80 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.Preconditions;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+//tells whether the computer runs on its battery, from the power supplies described by the Linux kernel,
+//on the other systems, or when nothing can be read, the computer is considered as plugged in
+//the power supplies are read on a background daemon thread, so that the JavaFX Application Thread only reads a flag
+//by Jiabao WEN
+final class PowerSupply {
+
+    private final static Path POWER_SUPPLIES = Path.of("/sys/class/power_supply");
+
+    private final long periodMillis;
+    private volatile boolean onBattery;
+
+    /**
+     * @param period duration between two readings of the power supplies
+     * @throws IllegalArgumentException if the period is shorter than a millisecond
+     */
+    PowerSupply(Duration period) {
+        Preconditions.checkArgument(period.toMillis() >= 1);
+        this.periodMillis = period.toMillis();
+
+        Thread thread = new Thread(this::work, "power-supply");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * @return true iff a battery was discharging and no mains supply was online at the last reading,
+     * false before the first one
+     */
+    boolean onBattery() {
+        return onBattery;
+    }
+
+    private void work() {
+        try {
+            while (true) {
+                onBattery = readOnBattery();
+                Thread.sleep(periodMillis);
+            }
+        } catch (InterruptedException e) {
+            //the application stops
+        }
+    }
+
+    //true iff a battery is discharging and no mains supply is online
+    private static boolean readOnBattery() {
+        if (!Files.isDirectory(POWER_SUPPLIES)) {
+            return false;
+        }
+        boolean discharging = false;
+        try (DirectoryStream<Path> supplies = Files.newDirectoryStream(POWER_SUPPLIES)) {
+            for (Path supply : supplies) {
+                String type = read(supply.resolve("type"));
+                if (type.equals("Mains") && read(supply.resolve("online")).equals("1")) {
+                    return false;
+                }
+                if (type.equals("Battery") && read(supply.resolve("status")).equals("Discharging")) {
+                    discharging = true;
+                }
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        return discharging;
+    }
+
+    private static String read(Path file) throws IOException {
+        return Files.exists(file) ? Files.readString(file).trim() : "";
+    }
+}
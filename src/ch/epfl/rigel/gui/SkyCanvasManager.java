@@ -1,7 +1,9 @@
 package ch.epfl.rigel.gui;
 
+import ch.epfl.rigel.astronomy.Atmosphere;
 import ch.epfl.rigel.astronomy.CelestialObject;
 import ch.epfl.rigel.astronomy.ObservedSky;
+import ch.epfl.rigel.astronomy.SolarSystem;
 import ch.epfl.rigel.astronomy.StarCatalogue;
 import ch.epfl.rigel.coordinates.CartesianCoordinates;
 import ch.epfl.rigel.coordinates.HorizontalCoordinates;
@@ -9,9 +11,15 @@ import ch.epfl.rigel.coordinates.StereographicProjection;
 import ch.epfl.rigel.math.Angle;
 import ch.epfl.rigel.math.ClosedInterval;
 import ch.epfl.rigel.math.RightOpenInterval;
+import ch.epfl.rigel.profiling.Stage;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.beans.binding.Bindings;
+import javafx.beans.binding.DoubleBinding;
 import javafx.beans.binding.ObjectBinding;
+import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.value.ObservableDoubleValue;
 import javafx.beans.value.ObservableObjectValue;
@@ -21,6 +29,9 @@ import javafx.scene.input.KeyCode;
 import javafx.scene.transform.NonInvertibleTransformException;
 import javafx.scene.transform.Transform;
 
+import java.time.Duration;
+import java.util.List;
+
 
 
 import static java.lang.Math.abs;
@@ -31,10 +42,21 @@ public class SkyCanvasManager {
     private final Canvas canvas;
     private final SkyCanvasPainter painter;
     private final ObjectProperty<Point2D> mousePosition = new SimpleObjectProperty<>(Point2D.ZERO);
+    private final ObjectProperty<StarCatalogue> catalogue;
+    private final ObjectProperty<Atmosphere> atmosphere = new SimpleObjectProperty<>(Atmosphere.STANDARD);
     private final ObservableObjectValue<StereographicProjection> projection;
     private final ObservableObjectValue<HorizontalCoordinates> mouseHorizontalPosition;
-    private final ObservableObjectValue<ObservedSky> observedSky;
+    //the last sky computed by the worker, and the projection with which it was computed
+    private final ObjectProperty<ObservedSky> observedSky = new SimpleObjectProperty<>();
+    private StereographicProjection skyProjection;
+    private final ObservedSkyWorker skyWorker;
+    private final SkyLookAhead lookAhead = new SkyLookAhead(LOOK_AHEAD_FRAMES, INTERPOLATION_PIXEL_ERROR);
+    private final SkyKeyframeCache keyframes = new SkyKeyframeCache(KEYFRAME_INTERVAL, KEYFRAME_MEMORY);
+    private final BooleanProperty scrubbing = new SimpleBooleanProperty();
+    //the request whose sky is approximated by a key frame, until the worker computes it
+    private ObservedSkyWorker.Request approximated;
     private final ObservableObjectValue<Transform> planeToCanvas;
+    private final DoubleBinding pixelsPerUnit;
     private final ObjectBinding<CelestialObject> objectUnderMouse;
     public ObservableDoubleValue mouseAzDeg, mouseAltDeg;
     private final static RightOpenInterval AZ_INTERVAL = RightOpenInterval.of(0, 360);
@@ -43,6 +65,12 @@ public class SkyCanvasManager {
     private final static double AZ_CHANGE = 10;
     private final static double ALT_CHANGE = 5;
     private final static int DISTANCE_MAX = 10;
+    private final static int LOOK_AHEAD_FRAMES = 4;
+    //maximal error of the positions interpolated between two skies computed by the look-ahead, in pixels
+    private final static double INTERPOLATION_PIXEL_ERROR = 0.25;
+    //key frames drawn while scrubbing, every five minutes, 64 MB at most (about 500 key frames of 5000 stars)
+    private final static Duration KEYFRAME_INTERVAL = Duration.ofMinutes(5);
+    private final static long KEYFRAME_MEMORY = 64L << 20;
 
     /**
      * a manager of the canvas where we paint the sky
@@ -56,9 +84,11 @@ public class SkyCanvasManager {
                             ObserverLocationBean observerLocationBean,
                             ViewingParametersBean viewingParametersBean) {
 
+        this.catalogue = new SimpleObjectProperty<>(catalogue);
         canvas = new Canvas(800, 600);
 
         painter = new SkyCanvasPainter(canvas);
+        painter.setOverlaySummary(keyframes::summary);
 
         projection = Bindings.createObjectBinding(
                 () -> new StereographicProjection(viewingParametersBean.getCenter()),
@@ -67,26 +97,73 @@ public class SkyCanvasManager {
 
         planeToCanvas = Bindings.createObjectBinding(
                 () -> {
+                    long start = System.nanoTime();
                     double width = projection.get().applyToAngle(Angle.ofDeg(viewingParametersBean.getFieldOfViewDeg()));
                     double scale = canvas.getWidth() / width;
-                    return Transform.affine(scale, 0, 0, -scale, canvas.getWidth() * 0.5, canvas.getHeight() * 0.5);
+                    Transform transform = Transform.affine(scale, 0, 0, -scale, canvas.getWidth() * 0.5, canvas.getHeight() * 0.5);
+                    Stage.BINDING_PLANE_TO_CANVAS.record(start);
+                    return transform;
                 },
                 projection, canvas.widthProperty(), canvas.heightProperty(), viewingParametersBean.fieldOfViewDegProperty());
 
 
-        observedSky = Bindings.createObjectBinding(
-                () -> new ObservedSky(dateTimeBean.getZonedDateTime(), observerLocationBean.getCoordinates(), projection.get(), catalogue),
-                dateTimeBean.dateProperty(), dateTimeBean.timeProperty(), dateTimeBean.zoneProperty(), observerLocationBean.coordinates, projection);
+        //the first sky is computed right away, the next ones by the worker, every time a parameter changes
+        skyProjection = projection.get();
+        observedSky.set(new ObservedSky(SolarSystem.at(dateTimeBean.getZonedDateTime()), observerLocationBean.getCoordinates(),
+                skyProjection, this.catalogue.get(), atmosphere.get()));
+
+        skyWorker = new ObservedSkyWorker((sky, request) -> {
+            //the older requests would replace the key frame of a newer one by a sky further from it
+            if (approximated != null && request != approximated) {
+                return;
+            }
+            approximated = null;
+            lookAhead.drawnElsewhere();
+            skyProjection = request.projection();
+            observedSky.set(sky);
+        });
+        //while the animation runs, the sky of the frame has usually been computed ahead
+        InvalidationListener requestSky = o -> {
+            ObservedSkyWorker.Request request = new ObservedSkyWorker.Request(
+                    dateTimeBean.getZonedDateTime(), observerLocationBean.getCoordinates(), projection.get(),
+                    this.catalogue.get(), atmosphere.get());
+            ObservedSky ready = lookAhead.take(request);
+            if (ready == null) {
+                skyWorker.request(request);
+                //while scrubbing, the nearest key frame is drawn until the worker computes the exact sky
+                ObservedSky keyframe = scrubbing.get() ? keyframes.nearest(request) : null;
+                approximated = keyframe == null ? null : request;
+                if (keyframe != null) {
+                    lookAhead.drawnElsewhere();
+                    skyProjection = request.projection();
+                    observedSky.set(keyframe);
+                }
+            } else {
+                approximated = null;
+                //the requests made while the date time bean was half updated are dropped
+                skyWorker.cancel();
+                skyProjection = request.projection();
+                observedSky.set(ready);
+            }
+        };
+        for (Observable dependency : List.of(dateTimeBean.dateProperty(), dateTimeBean.timeProperty(), dateTimeBean.zoneProperty(),
+                observerLocationBean.coordinates, projection, this.catalogue, atmosphere)) {
+            dependency.addListener(requestSky);
+        }
 
 
         observedSky.addListener(o ->
-                painter.drawAll(observedSky.get(), projection.get(), planeToCanvas.get(), observerLocationBean.getLatDeg())
+                painter.drawAll(observedSky.get(), skyProjection, planeToCanvas.get(), observerLocationBean.getLatDeg())
         );
 
         planeToCanvas.addListener(o ->
-                painter.drawAll(observedSky.get(), projection.get(), planeToCanvas.get(), observerLocationBean.getLatDeg())
+                painter.drawAll(observedSky.get(), skyProjection, planeToCanvas.get(), observerLocationBean.getLatDeg())
         );
 
+        pixelsPerUnit = Bindings.createDoubleBinding(() -> planeToCanvas.get().getMxx(), planeToCanvas);
+        lookAhead.setPixelsPerUnit(pixelsPerUnit.get());
+        pixelsPerUnit.addListener(o -> lookAhead.setPixelsPerUnit(pixelsPerUnit.get()));
+
 
         canvas.setOnKeyPressed(event -> {
             HorizontalCoordinates center = viewingParametersBean.getCenter();
@@ -108,6 +185,13 @@ public class SkyCanvasManager {
                 viewingParametersBean.setCenter(HorizontalCoordinates.ofDeg(
                         centerAz, ALT_INTERVAL.clip(centerAlt - ALT_CHANGE)));
                 event.consume();
+            } else if (event.getCode() == KeyCode.F4) {
+                atmosphere.set(atmosphere.get() == Atmosphere.NONE ? Atmosphere.STANDARD : Atmosphere.NONE);
+                event.consume();
+            } else if (event.getCode() == KeyCode.F3) {
+                painter.setOverlayVisible(!painter.isOverlayVisible());
+                painter.drawAll(observedSky.get(), skyProjection, planeToCanvas.get(), observerLocationBean.getLatDeg());
+                event.consume();
             }
         });
 
@@ -128,6 +212,7 @@ public class SkyCanvasManager {
 
         mouseHorizontalPosition = Bindings.createObjectBinding(
                 () -> {
+                    long start = System.nanoTime();
                     try {
                         Point2D horizontalCoordinatesAfter = planeToCanvas.get().inverseTransform(mousePosition.get());
 
@@ -135,6 +220,8 @@ public class SkyCanvasManager {
 
                     } catch (NonInvertibleTransformException e) {
                         return null;
+                    } finally {
+                        Stage.BINDING_MOUSE.record(start);
                     }
                 },
                 mousePosition, projection, planeToCanvas);
@@ -162,6 +249,7 @@ public class SkyCanvasManager {
 
         objectUnderMouse = Bindings.createObjectBinding(
                 () -> {
+                    long start = System.nanoTime();
                     try {
                         Point2D mousePositionBefore = planeToCanvas.get().inverseTransform(mousePosition.get());
                         CartesianCoordinates mPBCoor = CartesianCoordinates.of(mousePositionBefore.getX(), mousePositionBefore.getY());
@@ -170,6 +258,8 @@ public class SkyCanvasManager {
                         return observedSky.get().objectClosestTo(mPBCoor, distanceMax).orElse(null);
                     } catch (NonInvertibleTransformException e) {
                         return null;
+                    } finally {
+                        Stage.BINDING_OBJECT_UNDER_MOUSE.record(start);
                     }
                 },
                 observedSky, mousePosition, planeToCanvas
@@ -185,6 +275,42 @@ public class SkyCanvasManager {
         return canvas;
     }
 
+    /**
+     * @return the property of the displayed star catalogue, the sky is redrawn when it's replaced
+     */
+    public ObjectProperty<StarCatalogue> catalogueProperty() {
+        return catalogue;
+    }
+
+    /**
+     * @return the property of the atmosphere through which the sky is seen, F4 toggles it
+     */
+    public ObjectProperty<Atmosphere> atmosphereProperty() {
+        return atmosphere;
+    }
+
+    /**
+     * @return the property telling whether the user scrubs through the time, the skies are then approximated by
+     * cached key frames until they are computed
+     */
+    public BooleanProperty scrubbingProperty() {
+        return scrubbing;
+    }
+
+    /**
+     * @return the number of pixels of the canvas per unit of the plane of the projection, at the current zoom
+     */
+    public ObservableDoubleValue pixelsPerUnitProperty() {
+        return pixelsPerUnit;
+    }
+
+    /**
+     * @return the look-ahead computing the skies of the next frames of the animation
+     */
+    SkyLookAhead lookAhead() {
+        return lookAhead;
+    }
+
     /**
      * @return object under mouse property
      */
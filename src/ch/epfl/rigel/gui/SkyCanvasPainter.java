@@ -6,15 +6,22 @@ import ch.epfl.rigel.coordinates.HorizontalCoordinates;
 import ch.epfl.rigel.coordinates.StereographicProjection;
 import ch.epfl.rigel.math.Angle;
 import ch.epfl.rigel.math.ClosedInterval;
+import ch.epfl.rigel.profiling.FramePaintEvent;
+import ch.epfl.rigel.profiling.Stage;
+import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
 import javafx.geometry.VPos;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.ArcType;
+import javafx.scene.text.Font;
 import javafx.scene.text.TextAlignment;
 import javafx.scene.transform.Transform;
 
+import java.nio.DoubleBuffer;
+import java.util.List;
+import java.util.function.Supplier;
+
 
 //represents a painter which draws the sky on a canvas
 //by Marin COHU & Jiabao WEN
@@ -23,6 +30,12 @@ public class SkyCanvasPainter {
     private GraphicsContext ctx;
     private final static ClosedInterval INTERVAL = ClosedInterval.of(-2, 5);
     private final static double MAGNITUDE = 2 * Math.tan(Angle.ofDeg(0.5) / 4);
+    private final static Font OVERLAY_FONT = Font.font("Monospaced", 11);
+    private boolean overlayVisible;
+    private Supplier<String> overlaySummary = () -> "";
+    //positions of the stars and the planets on the canvas, reused from one frame to the next
+    private double[] starCanvasPositions = new double[0];
+    private double[] planetCanvasPositions = new double[0];
 
 
     public SkyCanvasPainter(Canvas canvas) {
@@ -49,8 +62,9 @@ public class SkyCanvasPainter {
         //draw asterisms
         ctx.setStroke(Color.BLUE);
         ctx.setLineWidth(1);
-        var position = sky.starPositions();
-        planeToCanvas.transform2DPoints(position, 0, position, 0, position.length / 2);
+        starCanvasPositions = toCanvas(sky.starPositionsView(), starCanvasPositions, planeToCanvas);
+        double[] position = starCanvasPositions;
+        Bounds bounds = canvas.getBoundsInLocal();
 
         for (Asterism asterism : sky.asterisms()) {
             ctx.beginPath();
@@ -59,14 +73,14 @@ public class SkyCanvasPainter {
             int index1st = as.get(0);
             double x1st = position[index1st * 2];
             double y1st = position[index1st * 2 + 1];
-            boolean visible1st = canvas.getBoundsInLocal().contains(x1st, y1st);
+            boolean visible1st = bounds.contains(x1st, y1st);
             ctx.moveTo(x1st, y1st);
 
             //start with index1
             for (Integer index : as.subList(1, as.size())) {
                 double x0 = position[index * 2];
                 double y0 = position[index * 2 + 1];
-                boolean visible = canvas.getBoundsInLocal().contains(x0, y0);
+                boolean visible = bounds.contains(x0, y0);
                 if (visible || visible1st) {
                     ctx.lineTo(x0, y0);
                 }
@@ -77,11 +91,14 @@ public class SkyCanvasPainter {
 
         }
 
-        //draw stars
-        for (int i = 0; i < sky.stars().size() - 1; i += 2) {
-            Star star = sky.stars().get(i / 2);
-            double diameter0 = diameterCal(star.magnitude());
-            double diameter = planeToCanvas.deltaTransform(diameter0, 0).getX();
+        //draw stars, their size depends on their magnitude dimmed by the atmosphere
+        //the transform is linear on the diameters, its scale is computed once instead of once per star
+        DoubleBuffer magnitudes = sky.starMagnitudesView();
+        List<Star> stars = sky.stars();
+        double scale = planeToCanvas.deltaTransform(1, 0).getX();
+        for (int i = 0; i < position.length - 1; i += 2) {
+            Star star = stars.get(i / 2);
+            double diameter = diameterCal(magnitudes.get(i / 2)) * scale;
             double x = position[i];
             double y = position[i + 1];
             Color color = BlackBodyColor.colorForTemperature(star.colorTemperature());
@@ -100,14 +117,15 @@ public class SkyCanvasPainter {
      */
     public void drawPlanets(ObservedSky sky, StereographicProjection projection, Transform planeToCanvas) {
         ctx.setFill(Color.LIGHTGRAY);
-        var position = sky.planetPositions();
-        planeToCanvas.transform2DPoints(position, 0, position, 0, position.length / 2);
+        planetCanvasPositions = toCanvas(sky.planetPositionsView(), planetCanvasPositions, planeToCanvas);
+        double[] position = planetCanvasPositions;
+        List<Planet> planets = sky.planets();
+        double scale = planeToCanvas.deltaTransform(1, 0).getX();
 
         for (int i = 0; i < 13; i += 2) {
             int v = i / 2;
-            Planet planet = sky.planets().get(v);
-            double diameter0 = diameterCal(planet.magnitude());
-            double diameter = planeToCanvas.deltaTransform(diameter0, 0).getX();
+            Planet planet = planets.get(v);
+            double diameter = diameterCal(planet.magnitude()) * scale;
             double x = position[i];
             double y = position[i + 1];
             ctx.fillOval(x - diameter / 2, y - diameter / 2, diameter, diameter);
@@ -117,6 +135,16 @@ public class SkyCanvasPainter {
         }
     }
 
+    //copies the positions of the view in the array (replaced if its size differs), then transforms them in place
+    private static double[] toCanvas(DoubleBuffer positions, double[] canvasPositions, Transform planeToCanvas) {
+        if (canvasPositions.length != positions.remaining()) {
+            canvasPositions = new double[positions.remaining()];
+        }
+        positions.get(canvasPositions);
+        planeToCanvas.transform2DPoints(canvasPositions, 0, canvasPositions, 0, canvasPositions.length / 2);
+        return canvasPositions;
+    }
+
     private String planetsName(int v) {
 
         switch (v) {
@@ -189,11 +217,13 @@ public class SkyCanvasPainter {
     }
 
     /**
-     * draw the phase of the moon
+     * draw the phase of the moon : the illuminated part is a single path bounded by
+     * the bright limb (half circle) and the terminator (half ellipse)
      *
      * @param sky           observed sky
      * @param projection    stereographic projection
      * @param planeToCanvas transform from plane to canvas
+     * @param latDeg        observer's latitude in degree, the Moon is seen upside down in the southern hemisphere
      */
     public void drawMoonPhase(ObservedSky sky, StereographicProjection projection, Transform planeToCanvas, double latDeg) {
         CartesianCoordinates moonPos = sky.moonPosition();
@@ -204,55 +234,28 @@ public class SkyCanvasPainter {
 
         double diameter1 = projection.applyToAngle(sky.moon().angularSize());
         double diameter = planeToCanvas.deltaTransform(diameter1, 0).getX();
+        double radius = diameter / 2;
 
-        String phase = sky.moon().getMoonPhase();
-
-        if ((phase.equals("waxing crescent") && latDeg > 0) ||
-                (phase.equals("waning crescent") && latDeg < 0)) {
-            drawQuarter(x, y, diameter, -1);
-            drawCrescentOrGibbous(x, y, diameter, Color.BLACK);
-        } else if ((phase.equals("first quarter") && latDeg > 0) ||
-                (phase.equals("last quarter") && latDeg < 0)) {
-            drawQuarter(x, y, diameter, -1);
-        } else if ((phase.equals("waxing gibbous") && latDeg > 0) ||
-                (phase.equals("waning gibbous") && latDeg < 0)) {
-            drawQuarter(x, y, diameter, -1);
-            drawCrescentOrGibbous(x, y, diameter, Color.WHITE);
-        } else if (phase.equals("full moon")) {
-            ctx.setFill(Color.WHITE);
-            ctx.fillOval(x - diameter / 2, y - diameter / 2, diameter, diameter);
-        } else if ((phase.equals("waning gibbous") && latDeg > 0) ||
-                (phase.equals("waxing gibbous") && latDeg < 0)) {
-            drawQuarter(x, y, diameter, 1);
-            drawCrescentOrGibbous(x, y, diameter, Color.WHITE);
-        } else if ((phase.equals("last quarter") && latDeg > 0) ||
-                (phase.equals("first quarter") && latDeg < 0)) {
-            drawQuarter(x, y, diameter, 1);
-        } else if ((phase.equals("waning crescent") && latDeg > 0) ||
-                (phase.equals("waxing crescent") && latDeg < 0)) {
-            drawQuarter(x, y, diameter, -1);
-            drawCrescentOrGibbous(x, y, diameter, Color.BLACK);
-        }
-
-
-        ctx.fillText("Moon", x + diameter / 2, y + diameter / 2);
+        ctx.setFill(Color.BLACK);
+        ctx.fillOval(x - radius, y - radius, diameter, diameter);
 
-    }
+        //+1 if the illuminated limb is on the right, -1 if it's on the left
+        double phaseAngle = sky.moon().phaseAngle();
+        int litSide = ((phaseAngle < Math.PI) == (latDeg >= 0)) ? 1 : -1;
+        double cosPhase = Math.cos(phaseAngle);
 
-    private void drawQuarter(double x, double y, double diameter, int sign) {
-        //first quarter
         ctx.setFill(Color.WHITE);
-        ctx.fillArc(x - diameter / 4, y - diameter / 2, diameter, diameter, 90, sign * 180, ArcType.OPEN);
+        ctx.beginPath();
+        ctx.moveTo(x, y - radius);
+        ctx.arc(x, y, radius, radius, 90, -180 * litSide);
+        //the terminator bulges towards the illuminated limb for a crescent and away from it for a gibbous moon
+        ctx.arc(x, y, radius * Math.abs(cosPhase), radius, 270, 180 * litSide * Math.signum(cosPhase));
+        ctx.closePath();
+        ctx.fill();
+
+        ctx.fillText("Moon", x + radius, y + radius);
     }
 
-    private void drawCrescentOrGibbous(double x, double y, double diameter, Color color) {
-        //waxing crescent
-        ctx.setFill(color);
-        ctx.fillOval(x, y - diameter / 2, diameter / 2, diameter);
-
-    }
-
-
     /**
      * draw horizon and cardinal points
      *
@@ -293,19 +296,86 @@ public class SkyCanvasPainter {
     }
 
     /**
-     * apply all the above drawing methods
+     * draw the median, 99th percentile and maximum duration of each stage of the pipeline
+     */
+    public void drawProfilingOverlay() {
+        double lineHeight = 14;
+        double width = 360;
+        double height = lineHeight * (Stage.ALL.size() + 1);
+        ctx.save();
+        ctx.setFill(Color.rgb(0, 0, 0, 0.7));
+        ctx.fillRect(0, 0, width, height);
+
+        ctx.setFill(Color.LIME);
+        ctx.setFont(OVERLAY_FONT);
+        ctx.setTextAlign(TextAlignment.LEFT);
+        ctx.setTextBaseline(VPos.TOP);
+        for (int i = 0; i < Stage.ALL.size(); i++) {
+            ctx.fillText(Stage.ALL.get(i).summary(), 4, 4 + i * lineHeight);
+        }
+        ctx.fillText(overlaySummary.get(), 4, 4 + Stage.ALL.size() * lineHeight);
+        ctx.restore();
+    }
+
+    /**
+     * @return true iff the profiling overlay is drawn over the sky
+     */
+    public boolean isOverlayVisible() {
+        return overlayVisible;
+    }
+
+    /**
+     * @param overlayVisible whether the profiling overlay is drawn over the sky
+     */
+    public void setOverlayVisible(boolean overlayVisible) {
+        this.overlayVisible = overlayVisible;
+    }
+
+    /**
+     * @param overlaySummary supplier of a line drawn under the stages in the profiling overlay
+     */
+    public void setOverlaySummary(Supplier<String> overlaySummary) {
+        this.overlaySummary = overlaySummary;
+    }
+
+    /**
+     * apply all the above drawing methods, the duration of each layer is recorded in its stage
      *
      * @param oS      observed sky
      * @param project used projection
      * @param pTC     transform from plan to canvas
      */
     public void drawAll(ObservedSky oS, StereographicProjection project, Transform pTC, double latDeg) {
+        long frameStart = System.nanoTime();
+        FramePaintEvent event = new FramePaintEvent();
+        event.begin();
         this.clear();
+
+        long start = System.nanoTime();
         this.drawStars(oS, project, pTC);
+        Stage.PAINT_STARS.record(start);
+
+        start = System.nanoTime();
         this.drawPlanets(oS, project, pTC);
+        Stage.PAINT_PLANETS.record(start);
+
+        start = System.nanoTime();
         this.drawSun(oS, project, pTC);
+        Stage.PAINT_SUN.record(start);
+
+        start = System.nanoTime();
         this.drawMoon(oS, project, pTC);
         this.drawMoonPhase(oS, project, pTC, latDeg);
+        Stage.PAINT_MOON.record(start);
+
+        start = System.nanoTime();
         this.drawHorizon(oS, project, pTC);
+        Stage.PAINT_HORIZON.record(start);
+
+        Stage.FRAME.record(frameStart);
+        event.commit(oS.stars().size(), oS.asterisms().size());
+        if (overlayVisible) {
+            this.drawProfilingOverlay();
+        }
     }
 }
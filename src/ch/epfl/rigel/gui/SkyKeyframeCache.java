@@ -0,0 +1,181 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.Preconditions;
+import ch.epfl.rigel.astronomy.ObservedSky;
+import javafx.application.Platform;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+//keeps the skies computed at regular instants, the key frames, so that scrubbing through a night draws at once
+//the key frame nearest to the scrubbed instant, while the exact sky is computed by the worker
+//the missing key frames are computed on a background thread, the most recently asked first,
+//and the least recently used ones are evicted once their estimated size exceeds a memory cap
+//the key frames are dropped when the position, the view, the catalogue or the atmosphere change
+//by Jiabao WEN
+final class SkyKeyframeCache {
+
+    //the key frames asked while scrubbing fast are dropped, only the most recent ones are computed
+    private final static int MAX_PENDING = 8;
+
+    private final long intervalSeconds;
+    private final long maxBytes;
+
+    private final Object lock = new Object();
+    //guarded by lock
+    private final LinkedHashMap<Long, ObservedSky> keyframes = new LinkedHashMap<>(16, 0.75f, true);
+    private final ArrayDeque<Long> pending = new ArrayDeque<>();
+    private ObservedSkyWorker.Request view;
+    private long generation;
+    private long bytes;
+    private long hits, misses, evictions;
+
+    /**
+     * @param interval duration between two key frames
+     * @param maxBytes memory cap of the key frames, in bytes
+     * @throws IllegalArgumentException if the interval is shorter than a second or maxBytes is not strictly positive
+     */
+    SkyKeyframeCache(Duration interval, long maxBytes) {
+        Preconditions.checkArgument(interval.getSeconds() >= 1 && maxBytes > 0);
+        this.intervalSeconds = interval.getSeconds();
+        this.maxBytes = maxBytes;
+
+        Thread thread = new Thread(this::work, "sky-keyframes");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * @param request parameters of the sky to draw
+     * @return the cached key frame closest to the requested moment, less than an interval away, null if there is
+     * none, in which case the nearest key frame is computed in the background
+     */
+    ObservedSky nearest(ObservedSkyWorker.Request request) {
+        synchronized (lock) {
+            if (!request.hasSameViewAs(view)) {
+                view = request;
+                keyframes.clear();
+                pending.clear();
+                bytes = 0;
+                generation++;
+            }
+            long seconds = request.when().toEpochSecond();
+            long index = Math.floorDiv(seconds, intervalSeconds);
+            long remainder = Math.floorMod(seconds, intervalSeconds);
+            long nearest = 2 * remainder < intervalSeconds ? index : index + 1;
+            long other = nearest == index ? index + 1 : index;
+
+            ObservedSky sky = keyframes.get(nearest);
+            if (sky == null) {
+                ask(nearest);
+                sky = keyframes.get(other);
+            }
+            if (sky == null) {
+                misses++;
+            } else {
+                hits++;
+            }
+            return sky;
+        }
+    }
+
+    /**
+     * @return the number of requests answered by a key frame
+     */
+    long hits() {
+        synchronized (lock) {
+            return hits;
+        }
+    }
+
+    /**
+     * @return the number of requests without any key frame close enough
+     */
+    long misses() {
+        synchronized (lock) {
+            return misses;
+        }
+    }
+
+    /**
+     * @return one line with the hit rate, the number of key frames and their estimated size
+     */
+    String summary() {
+        synchronized (lock) {
+            long total = hits + misses;
+            return String.format(Locale.ROOT, "%-18s hit %5.1f%%  %d frames  %.1f MB  %d evicted",
+                    "sky keyframes", total == 0 ? 0 : 100.0 * hits / total, keyframes.size(), bytes * 1e-6, evictions);
+        }
+    }
+
+    //guarded by lock
+    private void ask(long index) {
+        pending.remove(index);
+        if (pending.size() == MAX_PENDING) {
+            pending.removeLast();
+        }
+        pending.addFirst(index);
+        lock.notifyAll();
+    }
+
+    private void work() {
+        try {
+            while (true) {
+                long index, keyGeneration;
+                ObservedSkyWorker.Request keyView;
+                synchronized (lock) {
+                    while (pending.isEmpty()) {
+                        lock.wait();
+                    }
+                    index = pending.removeFirst();
+                    keyGeneration = generation;
+                    keyView = view;
+                }
+
+                ZonedDateTime when = ZonedDateTime.ofInstant(Instant.ofEpochSecond(index * intervalSeconds),
+                        keyView.when().getZone());
+                ObservedSky sky;
+                try {
+                    sky = keyView.at(when).compute();
+                } catch (RuntimeException e) {
+                    Platform.runLater(() -> Main.fail(e));
+                    continue;
+                }
+
+                synchronized (lock) {
+                    if (keyGeneration == generation && keyframes.put(index, sky) == null) {
+                        bytes += sizeOf(sky);
+                        evict();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            //the application stops
+        }
+    }
+
+    //guarded by lock, the most recent key frame is always kept
+    private void evict() {
+        Iterator<Map.Entry<Long, ObservedSky>> eldest = keyframes.entrySet().iterator();
+        while (bytes > maxBytes && keyframes.size() > 1) {
+            Map.Entry<Long, ObservedSky> entry = eldest.next();
+            bytes -= sizeOf(entry.getValue());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    //the positions of the stars, the Sun, the Moon and the planets, and the magnitudes of the stars
+    private static long sizeOf(ObservedSky sky) {
+        long stars = sky.stars().size();
+        long solarSystem = 2 + sky.planets().size();
+        return Double.BYTES * (3 * stars + 2 * solarSystem);
+    }
+}
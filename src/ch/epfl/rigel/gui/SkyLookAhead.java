@@ -0,0 +1,329 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.Preconditions;
+import ch.epfl.rigel.astronomy.ObservedSky;
+import ch.epfl.rigel.math.Angle;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+
+//computes ahead the skies of the next frames of an animation, whose instants are known from the time accelerator
+//the skies are kept in a ring of a few frames, the animator snaps each frame to the instant of a ready sky,
+//which is then drawn without waiting for any computation
+//every sky takes its own slot of the buffers, a slot is only reused once the sky drawn is newer than its previous sky
+//when the sky moves slowly on the canvas, the skies are only fully computed at key frames, and the frames between
+//two key frames interpolate their positions, the key frames are spaced so that the error stays below a pixel budget
+//the instants of the frames are epoch nanoseconds, a date time is only built for the skies which are computed
+//by Jiabao WEN
+final class SkyLookAhead {
+
+    /**
+     * duration of a frame at 60 frames per second, in nanoseconds
+     */
+    final static long FRAME_NANOS = 1_000_000_000L / 60;
+    /**
+     * angular velocity of the stars seen from the Earth, in radians per second of simulated time
+     */
+    final static double SIDEREAL_RATE = Angle.TAU / 86_164.0905;
+    //a second between two key frames at most, so that the changes of the parameters are seen soon enough
+    private final static long MAX_KEY_NANOS = 1_000_000_000L;
+    //upper bound of the scale of the stereographic projection at the edges of the widest field of view,
+    //relatively to its scale at the center
+    private final static double EDGE_SCALE = 2;
+    //the refraction bends the apparent paths near the horizon : their curvature is about four times the one
+    //of the circles of the stars, and their slope changes by about 0.35 where the refraction fades below the horizon
+    private final static double PATH_CURVATURE = 4;
+    private final static double PATH_KINK = 0.35;
+
+    private final int capacity;
+    private final int slotCount;
+    private final ObservedSky.Buffers buffers;
+    //only the last two key frames are needed to interpolate the frames between them
+    private final ObservedSky.Buffers keyBuffers = new ObservedSky.Buffers(2);
+    private final double pixelBudget;
+
+    private final Object lock = new Object();
+    //guarded by lock
+    private final ArrayDeque<Frame> frames = new ArrayDeque<>();
+    private ZonedDateTime t0;
+    private long t0Nanos;
+    private TimeAccelerator accelerator;
+    private long period = FRAME_NANOS;
+    private ObservedSkyWorker.Request parameters;
+    private long nextDeltaT;
+    private long generation;
+    //number of skies built so far, and number of the sky being drawn (-1 if it doesn't come from the look-ahead)
+    private long built;
+    private long drawn = -1;
+    private Frame current;
+    private double pixelsPerUnit;
+
+    /**
+     * @param capacity    number of frames computed ahead
+     * @param pixelBudget maximal error of the interpolated positions, in pixels (0 to compute every frame)
+     * @throws IllegalArgumentException if capacity is not strictly positive or pixelBudget is negative
+     */
+    SkyLookAhead(int capacity, double pixelBudget) {
+        Preconditions.checkArgument(capacity > 0 && pixelBudget >= 0);
+        this.capacity = capacity;
+        this.pixelBudget = pixelBudget;
+        //the frames of the ring, the sky drawn and the sky being computed
+        this.slotCount = capacity + 2;
+        this.buffers = new ObservedSky.Buffers(slotCount);
+
+        Thread thread = new Thread(this::work, "sky-look-ahead");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * called by the animator at every frame, the frames before deltaT are dropped
+     *
+     * @param t0          simulated time at the start of the animation
+     * @param t0Nanos     simulated time at the start of the animation, in epoch nanoseconds
+     * @param accelerator accelerator of the animation
+     * @param deltaT      real time since the start of the animation, in nanoseconds
+     * @param period      real time between two updates of the animation, a multiple of FRAME_NANOS
+     * @return true iff a sky is ready less than half a frame away from deltaT, whose instant is given by frameNanos
+     */
+    boolean frameReady(ZonedDateTime t0, long t0Nanos, TimeAccelerator accelerator, long deltaT, long period) {
+        synchronized (lock) {
+            if (t0 != this.t0 || accelerator != this.accelerator || period != this.period) {
+                this.t0 = t0;
+                this.t0Nanos = t0Nanos;
+                this.accelerator = accelerator;
+                this.period = period;
+                restart(deltaT);
+            }
+            while (!frames.isEmpty() && frames.peekFirst().deltaT < deltaT - FRAME_NANOS / 2) {
+                frames.removeFirst();
+            }
+            Frame first = frames.peekFirst();
+            if (first != null && first.deltaT <= deltaT + FRAME_NANOS / 2) {
+                current = frames.removeFirst();
+                lock.notifyAll();
+                return true;
+            }
+            //the computation is late, it jumps ahead of the animation
+            if (first == null && nextDeltaT <= deltaT) {
+                nextDeltaT = deltaT + period;
+            }
+            current = null;
+            lock.notifyAll();
+            return false;
+        }
+    }
+
+    /**
+     * @return the instant of the sky made ready by the last call to frameReady, in epoch nanoseconds
+     * @throws IllegalStateException if no sky was ready
+     */
+    long frameNanos() {
+        synchronized (lock) {
+            if (current == null) {
+                throw new IllegalStateException("no sky is ready");
+            }
+            return current.when;
+        }
+    }
+
+    /**
+     * @param pixelsPerUnit number of pixels of the canvas per unit of the plane of the projection, at the current zoom
+     */
+    void setPixelsPerUnit(double pixelsPerUnit) {
+        synchronized (lock) {
+            this.pixelsPerUnit = pixelsPerUnit;
+        }
+    }
+
+    /**
+     * stops computing ahead, until the next call to frameReady
+     */
+    void stop() {
+        synchronized (lock) {
+            t0 = null;
+            accelerator = null;
+            frames.clear();
+            current = null;
+            generation++;
+        }
+    }
+
+    /**
+     * @param request parameters of the sky to draw
+     * @return the sky of the current frame if it was computed for this request, null otherwise,
+     * in which case the frames computed with other parameters are dropped
+     */
+    ObservedSky take(ObservedSkyWorker.Request request) {
+        synchronized (lock) {
+            if (!request.hasSameViewAs(parameters)) {
+                parameters = request;
+                restart(current == null ? nextDeltaT : current.deltaT);
+                return null;
+            }
+            if (current != null && isAt(current.when, request.when())) {
+                drawn = current.number;
+                return current.sky;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * tells that the sky drawn doesn't come from the look-ahead anymore, so that all the slots can be reused
+     */
+    void drawnElsewhere() {
+        synchronized (lock) {
+            drawn = -1;
+            lock.notifyAll();
+        }
+    }
+
+    //guarded by lock
+    private void restart(long deltaT) {
+        frames.clear();
+        current = null;
+        nextDeltaT = deltaT + period;
+        generation++;
+        lock.notifyAll();
+    }
+
+    /**
+     * the error of a linear interpolation of a point turning at the angular velocity w during the time d is about
+     * c (w d)^2 / 8 + k (w d) / 4, for a path of curvature c whose slope changes by k, the largest angle w d
+     * keeping this error below the budget is the positive root of this polynomial
+     *
+     * @param accelerator   accelerator of the animation
+     * @param period        real time between two frames, in nanoseconds
+     * @param pixelsPerUnit number of pixels per unit of the plane, close to the number of pixels per radian at the center
+     * @return the number of frames between two key frames, 1 when every frame is computed
+     */
+    private int keyInterval(TimeAccelerator accelerator, long period, double pixelsPerUnit) {
+        //the discrete accelerators jump by large steps, their speed is too high to interpolate anything
+        double angularStep = SIDEREAL_RATE * Math.abs(accelerator.speed()) * period * 1e-9;
+        double budget = pixelBudget / (EDGE_SCALE * pixelsPerUnit);
+        double a = PATH_CURVATURE / 8, b = PATH_KINK / 4;
+        double maxAngle = 2 * budget / (b + Math.sqrt(b * b + 4 * a * budget));
+        double interval = Math.floor(maxAngle / angularStep);
+        return Double.isNaN(interval) ? 1 : (int) Math.max(1, Math.min(interval, MAX_KEY_NANOS / period));
+    }
+
+    private void work() {
+        try {
+            long lastWhen = 0;
+            ObservedSky lastSky = null;
+            long lastGeneration = -1;
+            Frame previousKey = null, nextKey = null;
+            while (true) {
+                long frameGeneration, deltaT, number, frameT0;
+                ZoneId zone;
+                TimeAccelerator frameAccelerator;
+                ObservedSkyWorker.Request frameParameters;
+                double framePixelsPerUnit;
+                long framePeriod;
+                synchronized (lock) {
+                    //the slot of the next sky must not be the one of the sky drawn
+                    while (accelerator == null || parameters == null || frames.size() >= capacity
+                            || (drawn >= 0 && built >= drawn + slotCount)) {
+                        lock.wait();
+                    }
+                    frameGeneration = generation;
+                    deltaT = nextDeltaT;
+                    nextDeltaT += period;
+                    framePeriod = period;
+                    frameT0 = t0Nanos;
+                    zone = t0.getZone();
+                    frameAccelerator = accelerator;
+                    frameParameters = parameters;
+                    framePixelsPerUnit = pixelsPerUnit;
+                    number = built;
+                }
+
+                long when;
+                ObservedSky sky;
+                try {
+                    when = frameAccelerator.adjustNanos(frameT0, deltaT);
+                    int keyInterval = keyInterval(frameAccelerator, framePeriod, framePixelsPerUnit);
+                    if (frameGeneration != lastGeneration) {
+                        previousKey = null;
+                        nextKey = null;
+                    }
+                    if (keyInterval > 1) {
+                        long keySpan = keyInterval * framePeriod;
+                        if (nextKey != null && deltaT > nextKey.deltaT && deltaT <= nextKey.deltaT + keySpan) {
+                            previousKey = nextKey;
+                            nextKey = key(frameParameters, frameT0, zone, frameAccelerator, previousKey.deltaT + keySpan);
+                        } else if (nextKey == null || deltaT < previousKey.deltaT || deltaT > nextKey.deltaT) {
+                            previousKey = key(frameParameters, frameT0, zone, frameAccelerator, deltaT);
+                            nextKey = key(frameParameters, frameT0, zone, frameAccelerator, deltaT + keySpan);
+                        }
+                        double t = (double) (deltaT - previousKey.deltaT) / (nextKey.deltaT - previousKey.deltaT);
+                        sky = ObservedSky.interpolate(previousKey.sky, nextKey.sky, t, buffers);
+                        synchronized (lock) {
+                            built++;
+                        }
+                    } else if (frameGeneration == lastGeneration && when == lastWhen) {
+                        //the discrete accelerators give the same instant to many frames, which share their sky
+                        sky = lastSky;
+                    } else {
+                        sky = frameParameters.at(TimeAccelerator.ofEpochNanos(when, zone)).compute(buffers);
+                        synchronized (lock) {
+                            built++;
+                        }
+                    }
+                } catch (ArithmeticException e) {
+                    //the instants out of the range of a long aren't computed ahead, until the animation restarts
+                    previousKey = null;
+                    nextKey = null;
+                    lastGeneration = -1;
+                    synchronized (lock) {
+                        while (frameGeneration == generation) {
+                            lock.wait();
+                        }
+                    }
+                    continue;
+                }
+                lastGeneration = frameGeneration;
+                lastWhen = when;
+                lastSky = sky;
+
+                synchronized (lock) {
+                    if (frameGeneration == generation) {
+                        frames.addLast(new Frame(deltaT, when, sky, number));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            //the application stops
+        }
+    }
+
+    //compares the instants without converting when to epoch nanoseconds, as it may be out of the range of a long
+    private static boolean isAt(long epochNanos, ZonedDateTime when) {
+        return when.toEpochSecond() == Math.floorDiv(epochNanos, 1_000_000_000L)
+                && when.getNano() == Math.floorMod(epochNanos, 1_000_000_000L);
+    }
+
+    private Frame key(ObservedSkyWorker.Request parameters, long t0, ZoneId zone, TimeAccelerator accelerator,
+                      long deltaT) {
+        long when = accelerator.adjustNanos(t0, deltaT);
+        return new Frame(deltaT, when, parameters.at(TimeAccelerator.ofEpochNanos(when, zone)).compute(keyBuffers), -1);
+    }
+
+    //a sky computed ahead, with the real time of its frame since the start of the animation
+    private static final class Frame {
+        private final long deltaT;
+        //simulated time of the frame, in epoch nanoseconds
+        private final long when;
+        private final ObservedSky sky;
+        private final long number;
+
+        private Frame(long deltaT, long when, ObservedSky sky, long number) {
+            this.deltaT = deltaT;
+            this.when = when;
+            this.sky = sky;
+            this.number = number;
+        }
+    }
+}
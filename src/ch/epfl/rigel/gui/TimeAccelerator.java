@@ -1,10 +1,16 @@
 package ch.epfl.rigel.gui;
 
+import ch.epfl.rigel.Preconditions;
+
 import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
-import java.time.temporal.ChronoUnit;
 
 //represents a time accelerator - a function calculates simulated time based on real time
+//the simulated time can also be computed on primitive epoch nanoseconds, exactly and without any allocation,
+//for the instants between the years 1677 and 2262 which fit in a long
 //by Jiabao WEN
 @FunctionalInterface
 public interface TimeAccelerator {
@@ -17,21 +23,187 @@ public interface TimeAccelerator {
     ZonedDateTime adjust(ZonedDateTime T0, long deltaT);
 
     /**
-     * @param accFact acceleration factor
+     * same as adjust, on epoch nanoseconds, the accelerators of this interface don't allocate anything,
+     * the other ones go through adjust
+     *
+     * @param t0     initial simulated time, in nanoseconds since 1970-01-01T00:00:00Z
+     * @param deltaT real time since start of the animation, in nanoseconds
+     * @return simulated time, in nanoseconds since 1970-01-01T00:00:00Z
+     * @throws ArithmeticException if the simulated time doesn't fit in a long
+     */
+    default long adjustNanos(long t0, long deltaT) {
+        return epochNanos(adjust(ofEpochNanos(t0, ZoneOffset.UTC), deltaT));
+    }
+
+    /**
+     * @return the simulated seconds elapsed during the first real second of the animation,
+     * the average speed of the discrete accelerators
+     */
+    default double speed() {
+        return adjustNanos(0, 1_000_000_000L) * 1e-9;
+    }
+
+    /**
+     * @param accFact acceleration factor, negative to play the time backwards
      * @return a continuous accelerator
      */
     static TimeAccelerator continuous(int accFact) {
-        return ((T0, deltaT) -> T0.plus(deltaT * accFact, ChronoUnit.NANOS));
+        return new TimeAccelerator() {
+            @Override
+            public ZonedDateTime adjust(ZonedDateTime T0, long deltaT) {
+                return T0.plus(Duration.ofNanos(deltaT).multipliedBy(accFact));
+            }
 
+            @Override
+            public long adjustNanos(long t0, long deltaT) {
+                return multiplyAdd(deltaT, accFact, t0);
+            }
+        };
     }
 
     /**
      * @param freqAdvanc frequency of advancement
-     * @param steps      duration
+     * @param steps      duration, negative to play the time backwards
      * @return a discrete accelerator
+     * @throws IllegalArgumentException if freqAdvanc is not strictly positive
      */
     static TimeAccelerator discrete(int freqAdvanc, Duration steps) {
-        return ((T0, deltaT) -> T0.plus(steps.multipliedBy(freqAdvanc * deltaT / 1000_000_000)));
+        Preconditions.checkArgument(freqAdvanc > 0);
+        return new TimeAccelerator() {
+            @Override
+            public ZonedDateTime adjust(ZonedDateTime T0, long deltaT) {
+                return T0.plus(steps.multipliedBy(stepCount(freqAdvanc, deltaT)));
+            }
+
+            @Override
+            public long adjustNanos(long t0, long deltaT) {
+                return multiplyAdd(stepCount(freqAdvanc, deltaT), steps.toNanos(), t0);
+            }
+        };
+    }
+
+    /**
+     * plays the time at a speed changing at given real times, the simulated time stays continuous
+     *
+     * @param changes real times at which the acceleration factor changes, in nanoseconds, strictly increasing
+     * @param accFacts acceleration factors, the first one before changes[0], the i-th one from changes[i - 1]
+     * @return a continuous accelerator of variable speed
+     * @throws IllegalArgumentException if there isn't one more factor than changes, or the changes aren't increasing
+     */
+    static TimeAccelerator variable(long[] changes, int[] accFacts) {
+        Preconditions.checkArgument(accFacts.length == changes.length + 1);
+        for (int i = 1; i < changes.length; i++) {
+            Preconditions.checkArgument(changes[i - 1] < changes[i]);
+        }
+        long[] changeTimes = changes.clone();
+        int[] factors = accFacts.clone();
+        return ofNanos(deltaT -> {
+            //before the start of the animation, the first factor applies
+            if (deltaT <= 0) {
+                return Math.multiplyExact(deltaT, (long) factors[0]);
+            }
+            long simulated = 0;
+            long segmentStart = 0;
+            for (int i = 0; i < factors.length && segmentStart < deltaT; i++) {
+                long segmentEnd = i < changeTimes.length ? Math.min(changeTimes[i], deltaT) : deltaT;
+                if (segmentEnd > segmentStart) {
+                    simulated = Math.addExact(simulated, Math.multiplyExact(segmentEnd - segmentStart, (long) factors[i]));
+                    segmentStart = segmentEnd;
+                }
+            }
+            return simulated;
+        });
+    }
+
+    /**
+     * @param curve simulated nanoseconds elapsed after a given number of real nanoseconds, exact and without overflow,
+     *              so at most 292 years in both directions
+     * @return an accelerator following the curve
+     */
+    static TimeAccelerator ofNanos(NanoCurve curve) {
+        return new TimeAccelerator() {
+            @Override
+            public ZonedDateTime adjust(ZonedDateTime T0, long deltaT) {
+                return T0.plusNanos(curve.simulatedNanos(deltaT));
+            }
+
+            @Override
+            public long adjustNanos(long t0, long deltaT) {
+                return Math.addExact(t0, curve.simulatedNanos(deltaT));
+            }
+        };
+    }
+
+    /**
+     * @param instant an instant between the years 1677 and 2262
+     * @return the number of nanoseconds since 1970-01-01T00:00:00Z at the instant
+     * @throws ArithmeticException if the number of nanoseconds doesn't fit in a long
+     */
+    static long epochNanos(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+    }
+
+    /**
+     * same as epochNanos(when.toInstant()), without allocating the instant
+     *
+     * @param when a moment between the years 1677 and 2262
+     * @return the number of nanoseconds since 1970-01-01T00:00:00Z at the moment
+     * @throws ArithmeticException if the number of nanoseconds doesn't fit in a long
+     */
+    static long epochNanos(ZonedDateTime when) {
+        return Math.addExact(Math.multiplyExact(when.toEpochSecond(), 1_000_000_000L), when.getNano());
     }
 
+    /**
+     * @param epochNanos number of nanoseconds since 1970-01-01T00:00:00Z
+     * @param zone       time zone of the result
+     * @return the moment at epochNanos in the given zone
+     */
+    static ZonedDateTime ofEpochNanos(long epochNanos, ZoneId zone) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(0, epochNanos), zone);
+    }
+
+    /**
+     * the product is computed on 128 bits, so that an offset of more than 292 years going back into the range
+     * of a long, like from 2020 to 1700, is still exact
+     *
+     * @return a * b + c
+     * @throws ArithmeticException if the result doesn't fit in a long
+     */
+    private static long multiplyAdd(long a, long b, long c) {
+        long low = a * b;
+        long high = Math.multiplyHigh(a, b);
+        long sumLow = low + c;
+        long carry = Long.compareUnsigned(sumLow, low) < 0 ? 1 : 0;
+        long sumHigh = high + (c >> 63) + carry;
+        if (sumHigh != sumLow >> 63) {
+            throw new ArithmeticException("long overflow");
+        }
+        return sumLow;
+    }
+
+    /**
+     * @param freqAdvanc frequency of advancement
+     * @param deltaT     real time since start of the animation, in nanoseconds
+     * @return the number of steps made, floor(freqAdvanc * deltaT / 10^9) computed without overflow
+     */
+    private static long stepCount(int freqAdvanc, long deltaT) {
+        long seconds = Math.floorDiv(deltaT, 1_000_000_000L);
+        long nanos = Math.floorMod(deltaT, 1_000_000_000L);
+        //nanos < 10^9, so freqAdvanc * nanos < 2^31 * 10^9 fits in a long
+        return Math.addExact(Math.multiplyExact(seconds, (long) freqAdvanc), freqAdvanc * nanos / 1_000_000_000L);
+    }
+
+    //simulated time elapsed as a function of the real time elapsed, on primitive nanoseconds
+    //by Jiabao WEN
+    @FunctionalInterface
+    interface NanoCurve {
+
+        /**
+         * @param deltaT real time since start of the animation, in nanoseconds
+         * @return simulated time since start of the animation, in nanoseconds
+         * @throws ArithmeticException if the simulated time doesn't fit in a long
+         */
+        long simulatedNanos(long deltaT);
+    }
 }
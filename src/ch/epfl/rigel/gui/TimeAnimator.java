@@ -3,9 +3,15 @@ package ch.epfl.rigel.gui;
 import javafx.animation.AnimationTimer;
 import javafx.beans.property.*;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
 
 //represents a time animator
+//the simulated time is only updated once the sky has moved by a fraction of a pixel on the canvas, estimated from
+//the speed of the accelerator and the zoom, but at least every second so that the clock keeps ticking,
+//and at most 30 times per second when the computer runs on its battery
+//the frames are computed on epoch nanoseconds, a date time is only built when the simulated time changes,
+//the animation stops at the instants out of the years 1677 to 2262, which don't fit in a long
 //by Jiabao WEN
 public final class TimeAnimator extends AnimationTimer {
 
@@ -13,9 +19,24 @@ public final class TimeAnimator extends AnimationTimer {
     private boolean fstStart;
     private long startTime = 0;
     private ZonedDateTime T0;
+    private long t0Nanos;
+    //simulated time last given to the date time bean, in epoch nanoseconds
+    private long lastNanos;
     private final DateTimeBean dateTimeB;
     private final ObjectProperty<TimeAccelerator> accelerator = new SimpleObjectProperty<>();
     private final ReadOnlyBooleanProperty running = new SimpleBooleanProperty();
+    private final DoubleProperty pixelsPerUnit = new SimpleDoubleProperty(Double.POSITIVE_INFINITY);
+    private SkyLookAhead lookAhead;
+    private long nextUpdate;
+    private final PowerSupply powerSupply = new PowerSupply(POWER_CHECK_PERIOD);
+    //speed of the accelerator, computed again when the accelerator changes
+    private TimeAccelerator speedAccelerator;
+    private double speed;
+
+    private final static double PIXEL_THRESHOLD = 0.5;
+    private final static long MAX_PERIOD_NANOS = 1_000_000_000L;
+    private final static long BATTERY_PERIOD_NANOS = 2 * SkyLookAhead.FRAME_NANOS;
+    private final static Duration POWER_CHECK_PERIOD = Duration.ofSeconds(10);
 
     /**
      * @param dateTimeB date time bean
@@ -45,6 +66,21 @@ public final class TimeAnimator extends AnimationTimer {
         this.acceleratorProperty().set(newAccelerator);
     }
 
+    /**
+     * @return the property of the number of pixels of the canvas per unit of the plane of the projection,
+     * from which the motion of the sky on the canvas is estimated (infinite to update the time at every frame)
+     */
+    public DoubleProperty pixelsPerUnitProperty() {
+        return pixelsPerUnit;
+    }
+
+    /**
+     * @param lookAhead look-ahead computing the skies of the next frames, to whose instants the frames are snapped
+     */
+    void setLookAhead(SkyLookAhead lookAhead) {
+        this.lookAhead = lookAhead;
+    }
+
     /**
      * @return animator's status property
      */
@@ -61,6 +97,7 @@ public final class TimeAnimator extends AnimationTimer {
         super.start();
         isRunning = true;
         fstStart = true;
+        nextUpdate = 0;
     }
 
     /**
@@ -70,6 +107,9 @@ public final class TimeAnimator extends AnimationTimer {
     public void stop() {
         super.stop();
         isRunning = false;
+        if (lookAhead != null) {
+            lookAhead.stop();
+        }
     }
 
     /**
@@ -86,12 +126,50 @@ public final class TimeAnimator extends AnimationTimer {
             fstStart = false;
             startTime = now;
             T0 = dateTimeB.getZonedDateTime();
+            try {
+                t0Nanos = TimeAccelerator.epochNanos(T0);
+            } catch (ArithmeticException e) {
+                stop();
+                return;
+            }
+            lastNanos = t0Nanos;
         } else {
             long deltaT = now - startTime;
-            dateTimeB.setZonedDateTime(getAccelerator().adjust(T0, deltaT));
+            long period = updatePeriod();
+            //the look-ahead may have a frame ready a bit before the update is due
+            boolean predicted = lookAhead != null && lookAhead.frameReady(T0, t0Nanos, getAccelerator(), deltaT, period);
+            if (predicted || deltaT >= nextUpdate) {
+                long simulated;
+                try {
+                    simulated = predicted ? lookAhead.frameNanos() : getAccelerator().adjustNanos(t0Nanos, deltaT);
+                } catch (ArithmeticException e) {
+                    stop();
+                    return;
+                }
+                if (simulated != lastNanos) {
+                    lastNanos = simulated;
+                    dateTimeB.setZonedDateTime(TimeAccelerator.ofEpochNanos(simulated, T0.getZone()));
+                }
+                nextUpdate = deltaT + period - SkyLookAhead.FRAME_NANOS / 2;
+            }
         }
 
 
     }
 
+    /**
+     * @return the real time between two updates of the simulated time, a multiple of the duration of a frame
+     */
+    private long updatePeriod() {
+        if (getAccelerator() != speedAccelerator) {
+            speedAccelerator = getAccelerator();
+            speed = Math.abs(speedAccelerator.speed());
+        }
+        double pixelsPerSecond = SkyLookAhead.SIDEREAL_RATE * speed * pixelsPerUnit.get();
+        double seconds = pixelsPerSecond > 0 ? PIXEL_THRESHOLD / pixelsPerSecond : Double.POSITIVE_INFINITY;
+        long minPeriod = powerSupply.onBattery() ? BATTERY_PERIOD_NANOS : SkyLookAhead.FRAME_NANOS;
+        long period = (long) Math.max(minPeriod, Math.min(seconds * 1e9, MAX_PERIOD_NANOS));
+        return period / SkyLookAhead.FRAME_NANOS * SkyLookAhead.FRAME_NANOS;
+    }
+
 }
@@ -11,7 +11,8 @@ public final class Angle {
     private static final double HR_PER_RAD = 24.0/TAU;
     private static final double SEC_PER_RAD =  3600*360/TAU;
     private static final double MIN_PER_RAD = 60*360/TAU;
-    private static final RightOpenInterval NOR_INTER = RightOpenInterval.of(0,TAU);
+    //greatest angle of [0, 2pi[
+    private static final double BELOW_TAU = Math.nextDown(TAU);
 
     private Angle(){
         throw new UnsupportedOperationException();
@@ -23,7 +24,8 @@ public final class Angle {
      * @return angle normalize between 0 and 2pi
      */
     public static double normalizePositive(double rad){
-        return NOR_INTER.reduce(rad) ;
+        //same as RightOpenInterval.reduce(rad, 0, TAU), with the upper limit computed once
+        return Math.min(rad - TAU * Math.floor(rad / TAU), BELOW_TAU);
     }
 
     /**
@@ -48,9 +48,19 @@ public final class ClosedInterval extends Interval {
      * @return clip function of v
      */
     public double clip(double v){
-        if(v <= low()){
-            return low();
-        } else return Math.min(v, high());
+        return clip(v, low(), high());
+    }
+
+    /**
+     * clips a value without any object nor branch, for the hot loops, the bounds aren't checked
+     *
+     * @param v value in double
+     * @param low lower bound
+     * @param high upper bound, greater than low
+     * @return the value of [low, high] closest to v
+     */
+    public static double clip(double v, double low, double high){
+        return Math.max(low, Math.min(v, high));
     }
 
     /**
@@ -0,0 +1,296 @@
+package ch.epfl.rigel.math;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Objects;
+
+//fast approximations of the trigonometric functions used to project the stars at every frame
+//sin and cos are reduced to [-pi/4, pi/4] then evaluated by polynomials, atan by a rational function on [0, 0.66]
+//the error is below 1e-15 radian, far below the size of a pixel, Math stays the reference for validation
+//the batch methods run the same computations on the lanes of the vectors of jdk.incubator.vector, the quadrants
+//and the ranges are selected by masks instead of branches, the last values which don't fill a vector go through
+//the same branch-free scalar code
+//by Jiabao WEN
+public final class FastTrig {
+
+    private final static double HALF_PI = Math.PI / 2;
+    private final static double QUARTER_PI = Math.PI / 4;
+    private final static double TWO_OVER_PI = 2 / Math.PI;
+    //adding then subtracting 1.5 * 2^52 rounds to the nearest integer, which is left in the low bits of the sum
+    private final static double ROUND = 0x1.8p52;
+    private final static long SIGN_BIT = Long.MIN_VALUE;
+    //pi/2 split in two parts, the first one has 33 bits so that k * HALF_PI_1 is exact for the angles of the sky
+    private final static double HALF_PI_1 = 1.57079632673412561417e+00;
+    private final static double HALF_PI_2 = 6.07710050650619224932e-11;
+
+    //minimax polynomials of sin and cos on [-pi/4, pi/4]
+    private final static double S1 = -1.66666666666666324348e-01;
+    private final static double S2 = 8.33333333332248946124e-03;
+    private final static double S3 = -1.98412698298579493134e-04;
+    private final static double S4 = 2.75573137070700676789e-06;
+    private final static double S5 = -2.50507602534068634195e-08;
+    private final static double S6 = 1.58969099521155010221e-10;
+    private final static double C1 = 4.16666666666666019037e-02;
+    private final static double C2 = -1.38888888888741095749e-03;
+    private final static double C3 = 2.48015872894767294178e-05;
+    private final static double C4 = -2.75573143513906633035e-07;
+    private final static double C5 = 2.08757232129817482790e-09;
+    private final static double C6 = -1.13596475577881948265e-11;
+
+    //rational approximation of atan on [0, 0.66]
+    private final static double TAN_3PI_8 = 2.41421356237309504880;
+    private final static double P0 = -8.750608600031904122785e-01;
+    private final static double P1 = -1.615753718733365076637e+01;
+    private final static double P2 = -7.500855792314704667340e+01;
+    private final static double P3 = -1.228866684490136173410e+02;
+    private final static double P4 = -6.485021904942025371773e+01;
+    private final static double Q0 = 2.485846490142306297962e+01;
+    private final static double Q1 = 1.650270098316988542046e+02;
+    private final static double Q2 = 4.328810604912902668951e+02;
+    private final static double Q3 = 4.853903996359136964868e+02;
+    private final static double Q4 = 1.945506571482613964425e+02;
+
+    private final static VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private FastTrig() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @param x angle in radians
+     * @return the sine of x
+     */
+    public static double sin(double x) {
+        long quadrant = Math.round(x * TWO_OVER_PI);
+        double r = reduce(x, quadrant);
+        double s = (quadrant & 1) == 0 ? sinPolynomial(r) : cosPolynomial(r);
+        return (quadrant & 2) == 0 ? s : -s;
+    }
+
+    /**
+     * @param x angle in radians
+     * @return the cosine of x
+     */
+    public static double cos(double x) {
+        long quadrant = Math.round(x * TWO_OVER_PI);
+        double r = reduce(x, quadrant);
+        double c = (quadrant & 1) == 0 ? cosPolynomial(r) : sinPolynomial(r);
+        return ((quadrant + 1) & 2) == 0 ? c : -c;
+    }
+
+    /**
+     * @param x angle in radians
+     * @return the tangent of x
+     */
+    public static double tan(double x) {
+        long quadrant = Math.round(x * TWO_OVER_PI);
+        double r = reduce(x, quadrant);
+        double s = sinPolynomial(r);
+        double c = cosPolynomial(r);
+        return (quadrant & 1) == 0 ? s / c : -c / s;
+    }
+
+    /**
+     * @param x a value in [-1, 1]
+     * @return the arc sine of x, in [-pi/2, pi/2]
+     */
+    public static double asin(double x) {
+        return atan2(x, Math.sqrt((1 - x) * (1 + x)));
+    }
+
+    /**
+     * @param x a value
+     * @return the arc tangent of x, in [-pi/2, pi/2]
+     */
+    public static double atan(double x) {
+        double a = Math.abs(x);
+        double offset, t;
+        if (a > TAN_3PI_8) {
+            offset = HALF_PI;
+            t = -1 / a;
+        } else if (a > 0.66) {
+            offset = QUARTER_PI;
+            t = (a - 1) / (a + 1);
+        } else {
+            offset = 0;
+            t = a;
+        }
+        return Math.copySign(offset + atanRational(t), x);
+    }
+
+    /**
+     * @param y ordinate
+     * @param x abscissa
+     * @return the angle of the point (x, y), in [-pi, pi]
+     */
+    public static double atan2(double y, double x) {
+        if (x == 0) {
+            return y == 0 ? (Math.copySign(1, x) > 0 ? y : Math.copySign(Math.PI, y)) : Math.copySign(HALF_PI, y);
+        }
+        double angle = atan(y / x);
+        return x > 0 ? angle : angle + Math.copySign(Math.PI, y);
+    }
+
+    /**
+     * computes the sine and the cosine of many angles in one pass, without any branch
+     *
+     * @param angles  angles in radians, smaller than 2^50 in absolute value
+     * @param sines   destination of the sines, can be angles
+     * @param cosines destination of the cosines
+     * @param from    index of the first angle
+     * @param to      index after the last angle
+     */
+    public static void sinCos(double[] angles, double[] sines, double[] cosines, int from, int to) {
+        int i = from;
+        for (int end = from + SPECIES.loopBound(to - from); i < end; i += SPECIES.length()) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, angles, i);
+            DoubleVector rounded = x.mul(TWO_OVER_PI).add(ROUND);
+            LongVector quadrant = rounded.reinterpretAsLongs();
+            DoubleVector k = rounded.sub(ROUND);
+            DoubleVector r = x.sub(k.mul(HALF_PI_1)).sub(k.mul(HALF_PI_2));
+            //the polynomials of sinPolynomial and cosPolynomial, written here so that no vector leaves the loop
+            DoubleVector z = r.mul(r);
+            DoubleVector sp = z.mul(S6).add(S5).mul(z).add(S4).mul(z).add(S3).mul(z).add(S2).mul(z).add(S1);
+            DoubleVector s = r.add(r.mul(z).mul(sp));
+            DoubleVector cp = z.mul(C6).add(C5).mul(z).add(C4).mul(z).add(C3).mul(z).add(C2).mul(z).add(C1);
+            DoubleVector c = z.mul(-0.5).add(1).add(z.mul(z).mul(cp));
+            //swaps the polynomials in the odd quadrants and flips the sign bits
+            VectorMask<Double> odd = quadrant.and(1L).compare(VectorOperators.NE, 0L).cast(SPECIES);
+            LongVector sinSign = quadrant.and(2L).lanewise(VectorOperators.LSHL, 62);
+            LongVector cosSign = quadrant.add(1L).and(2L).lanewise(VectorOperators.LSHL, 62);
+            s.blend(c, odd).reinterpretAsLongs().lanewise(VectorOperators.XOR, sinSign)
+                    .reinterpretAsDoubles().intoArray(sines, i);
+            c.blend(s, odd).reinterpretAsLongs().lanewise(VectorOperators.XOR, cosSign)
+                    .reinterpretAsDoubles().intoArray(cosines, i);
+        }
+        for (; i < to; i++) {
+            double x = angles[i];
+            double rounded = x * TWO_OVER_PI + ROUND;
+            long quadrant = Double.doubleToRawLongBits(rounded);
+            double k = rounded - ROUND;
+            double r = (x - k * HALF_PI_1) - k * HALF_PI_2;
+            double s = sinPolynomial(r);
+            double c = cosPolynomial(r);
+            long odd = -(quadrant & 1);
+            long sinSign = (quadrant & 2) << 62;
+            long cosSign = ((quadrant + 1) & 2) << 62;
+            sines[i] = Double.longBitsToDouble(Double.doubleToRawLongBits(select(odd, c, s)) ^ sinSign);
+            cosines[i] = Double.longBitsToDouble(Double.doubleToRawLongBits(select(odd, s, c)) ^ cosSign);
+        }
+    }
+
+    /**
+     * computes the arc sine of many values in one pass, without any branch
+     *
+     * @param values values in [-1, 1]
+     * @param angles destination of the arc sines, can be values
+     * @param from   index of the first value
+     * @param to     index after the last value
+     */
+    public static void asin(double[] values, double[] angles, int from, int to) {
+        atan2OrAsin(values, null, angles, from, to);
+    }
+
+    /**
+     * computes the angle of many points in one pass, without any branch
+     *
+     * @param ys     finite ordinates
+     * @param xs     finite abscissas
+     * @param angles destination of the angles, in [-pi, pi], can be ys or xs
+     * @param from   index of the first point
+     * @param to     index after the last point
+     */
+    public static void atan2(double[] ys, double[] xs, double[] angles, int from, int to) {
+        atan2OrAsin(ys, Objects.requireNonNull(xs), angles, from, to);
+    }
+
+    //without abscissas, the abscissa of y is sqrt((1 - y)(1 + y)) and the angle is the arc sine of y,
+    //this test doesn't depend on the values and is taken out of the loops by the JIT
+    //the vector version of atan2WithoutBranch is written in the loop, the vectors leaving a method which isn't inlined
+    //would be allocated
+    private static void atan2OrAsin(double[] ys, double[] xs, double[] angles, int from, int to) {
+        int i = from;
+        for (int end = from + SPECIES.loopBound(to - from); i < end; i += SPECIES.length()) {
+            DoubleVector y = DoubleVector.fromArray(SPECIES, ys, i);
+            DoubleVector x = xs == null
+                    ? y.neg().add(1).mul(y.add(1)).sqrt()
+                    : DoubleVector.fromArray(SPECIES, xs, i);
+
+            DoubleVector ax = x.abs(), ay = y.abs();
+            VectorMask<Double> swap = ay.compare(VectorOperators.GT, ax);
+            DoubleVector min = ay.blend(ax, swap);
+            DoubleVector max = ax.blend(ay, swap);
+            DoubleVector t = min.div(max.add(Double.MIN_VALUE));
+
+            VectorMask<Double> above = t.compare(VectorOperators.GT, 0.66);
+            DoubleVector u = t.blend(t.sub(1).div(t.add(1)), above);
+            //the rational function of atanRational
+            DoubleVector z = u.mul(u);
+            DoubleVector p = z.mul(P0).add(P1).mul(z).add(P2).mul(z).add(P3).mul(z).add(P4);
+            DoubleVector q = z.add(Q0).mul(z).add(Q1).mul(z).add(Q2).mul(z).add(Q3).mul(z).add(Q4);
+            DoubleVector angle = u.add(u.mul(z).mul(p).div(q)).add(QUARTER_PI, above);
+
+            angle = angle.blend(angle.neg().add(HALF_PI), swap);
+            VectorMask<Double> negativeX = x.reinterpretAsLongs().compare(VectorOperators.LT, 0L).cast(SPECIES);
+            angle = angle.blend(angle.neg().add(Math.PI), negativeX);
+            LongVector sign = y.reinterpretAsLongs().and(SIGN_BIT);
+            angle.reinterpretAsLongs().and(~SIGN_BIT).or(sign).reinterpretAsDoubles().intoArray(angles, i);
+        }
+        for (; i < to; i++) {
+            double y = ys[i];
+            angles[i] = atan2WithoutBranch(y, xs == null ? Math.sqrt((1 - y) * (1 + y)) : xs[i]);
+        }
+    }
+
+    //the point is brought into the first octant, where t = min(|x|, |y|) / max(|x|, |y|) is in [0, 1],
+    //then the ranges of atan and the octants are selected by masks and factors of 0 or 1 taken from sign bits
+    private static double atan2WithoutBranch(double y, double x) {
+        double ax = Math.abs(x), ay = Math.abs(y);
+        //1 iff |y| > |x|, then the octant is the one above the diagonal
+        long swap = Double.doubleToRawLongBits(ax - ay) >>> 63;
+        double min = select(-swap, ax, ay);
+        double max = select(-swap, ay, ax);
+        //the smallest double keeps 0 / 0 away, it doesn't change the normal numbers
+        double t = min / (max + Double.MIN_VALUE);
+
+        //atan(t) = pi/4 + atan((t - 1) / (t + 1)) above 0.66, the rational function is exact on [-0.21, 0.66]
+        double above = Double.doubleToRawLongBits(0.66 - t) >>> 63;
+        double angle = above * QUARTER_PI + atanRational((t - above) / (1 + above * t));
+
+        angle = swap * HALF_PI + (1 - 2 * swap) * angle;
+        double negativeX = Double.doubleToRawLongBits(x) >>> 63;
+        angle = negativeX * Math.PI + (1 - 2 * negativeX) * angle;
+        return Math.copySign(angle, y);
+    }
+
+    //a if all the bits of mask are set, b if none is
+    private static double select(long mask, double a, double b) {
+        return Double.longBitsToDouble((Double.doubleToRawLongBits(a) & mask) | (Double.doubleToRawLongBits(b) & ~mask));
+    }
+
+    private static double reduce(double x, long quadrant) {
+        double k = quadrant;
+        return (x - k * HALF_PI_1) - k * HALF_PI_2;
+    }
+
+    private static double sinPolynomial(double r) {
+        double z = r * r;
+        return r + r * z * (S1 + z * (S2 + z * (S3 + z * (S4 + z * (S5 + z * S6)))));
+    }
+
+    private static double cosPolynomial(double r) {
+        double z = r * r;
+        return 1 - 0.5 * z + z * z * (C1 + z * (C2 + z * (C3 + z * (C4 + z * (C5 + z * C6)))));
+    }
+
+    private static double atanRational(double t) {
+        double z = t * t;
+        double p = (((P0 * z + P1) * z + P2) * z + P3) * z + P4;
+        double q = ((((z + Q0) * z + Q1) * z + Q2) * z + Q3) * z + Q4;
+        return t + t * z * p / q;
+    }
+}
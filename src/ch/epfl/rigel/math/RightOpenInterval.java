@@ -54,10 +54,23 @@ public final class RightOpenInterval extends Interval {
      * @return interval reduced by v
      */
     public double reduce(double v) {
-        double x = v - low();
-        double y = size();
+        return reduce(v, low(), high());
+    }
+
+    /**
+     * reduces a value without any object nor branch, for the hot loops, the bounds aren't checked
+     *
+     * @param v    value in double
+     * @param low  lower bound
+     * @param high upper bound, greater than low
+     * @return the value of [low, high[ congruent to v modulo high - low
+     */
+    public static double reduce(double v, double low, double high) {
+        double x = v - low;
+        double y = high - low;
         double floorMod = x - y * Math.floor(x / y);
-        return low() + floorMod;
+        //the rounding gives high for the values just below low, they are kept in the interval
+        return Math.min(low + floorMod, Math.nextDown(high));
     }
 
 }
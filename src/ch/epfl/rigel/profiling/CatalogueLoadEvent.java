@@ -0,0 +1,44 @@
+package ch.epfl.rigel.profiling;
+
+import jdk.jfr.*;
+
+//flight recorder event emitted when a catalogue file is loaded
+//by Jiabao WEN
+@Name("ch.epfl.rigel.CatalogueLoad")
+@Label("Catalogue Load")
+@Category("Rigel")
+@StackTrace(false)
+public final class CatalogueLoadEvent extends Event {
+
+    @Label("Loader")
+    private String loader;
+
+    @Label("Stars")
+    private int stars;
+
+    @Label("Asterisms")
+    private int asterisms;
+
+    @Label("Bytes Read")
+    @DataAmount
+    private long bytesRead;
+
+    /**
+     * ends the event and writes it in the recording, if the event is enabled
+     *
+     * @param loader    name of the loader
+     * @param stars     number of loaded stars
+     * @param asterisms number of loaded asterisms
+     * @param bytesRead number of bytes read from the file
+     */
+    public void commit(String loader, int stars, int asterisms, long bytesRead) {
+        end();
+        if (shouldCommit()) {
+            this.loader = loader;
+            this.stars = stars;
+            this.asterisms = asterisms;
+            this.bytesRead = bytesRead;
+            commit();
+        }
+    }
+}
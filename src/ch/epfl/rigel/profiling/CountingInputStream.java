@@ -0,0 +1,60 @@
+package ch.epfl.rigel.profiling;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+//an input stream which counts the bytes read from the underlying stream
+//by Jiabao WEN
+public final class CountingInputStream extends FilterInputStream {
+
+    private long count;
+
+    /**
+     * @param in underlying stream
+     */
+    public CountingInputStream(InputStream in) {
+        super(in);
+    }
+
+    /**
+     * @return number of bytes read so far
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @see FilterInputStream#read()
+     */
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            count++;
+        }
+        return b;
+    }
+
+    /**
+     * @see FilterInputStream#read(byte[], int, int)
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            count += n;
+        }
+        return n;
+    }
+
+    /**
+     * @see FilterInputStream#skip(long)
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count += skipped;
+        return skipped;
+    }
+}
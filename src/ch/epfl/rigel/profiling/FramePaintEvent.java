@@ -0,0 +1,33 @@
+package ch.epfl.rigel.profiling;
+
+import jdk.jfr.*;
+
+//flight recorder event emitted when the sky is painted on the canvas
+//by Jiabao WEN
+@Name("ch.epfl.rigel.FramePaint")
+@Label("Frame Paint")
+@Category("Rigel")
+@StackTrace(false)
+public final class FramePaintEvent extends Event {
+
+    @Label("Stars")
+    private int stars;
+
+    @Label("Asterisms")
+    private int asterisms;
+
+    /**
+     * ends the event and writes it in the recording, if the event is enabled
+     *
+     * @param stars     number of painted stars
+     * @param asterisms number of painted asterisms
+     */
+    public void commit(int stars, int asterisms) {
+        end();
+        if (shouldCommit()) {
+            this.stars = stars;
+            this.asterisms = asterisms;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ch.epfl.rigel.profiling;
+
+import jdk.jfr.*;
+
+//flight recorder event emitted when an observed sky is computed
+//by Jiabao WEN
+@Name("ch.epfl.rigel.SkyRebuild")
+@Label("Sky Rebuild")
+@Category("Rigel")
+@StackTrace(false)
+public final class SkyRebuildEvent extends Event {
+
+    @Label("Stars")
+    private int stars;
+
+    @Label("Planets")
+    private int planets;
+
+    /**
+     * ends the event and writes it in the recording, if the event is enabled
+     *
+     * @param stars   number of projected stars
+     * @param planets number of projected planets
+     */
+    public void commit(int stars, int planets) {
+        end();
+        if (shouldCommit()) {
+            this.stars = stars;
+            this.planets = planets;
+            commit();
+        }
+    }
+}
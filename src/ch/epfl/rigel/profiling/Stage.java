@@ -0,0 +1,85 @@
+package ch.epfl.rigel.profiling;
+
+import jdk.jfr.FlightRecorder;
+
+import java.util.List;
+import java.util.Locale;
+
+//enumeration contains the stages of the computation and the painting of the sky
+//each stage records its durations in a histogram, from any thread
+//by Jiabao WEN
+public enum Stage {
+    SOLAR_SYSTEM("ephemeris"),
+    SKY_PROJECTION("star projection"),
+    SKY_WORKER("sky worker"),
+    BINDING_PLANE_TO_CANVAS("binding transform"),
+    BINDING_MOUSE("binding mouse"),
+    BINDING_OBJECT_UNDER_MOUSE("binding object"),
+    PAINT_STARS("paint stars"),
+    PAINT_PLANETS("paint planets"),
+    PAINT_SUN("paint sun"),
+    PAINT_MOON("paint moon"),
+    PAINT_HORIZON("paint horizon"),
+    FRAME("frame");
+
+    public final static List<Stage> ALL = List.of(values());
+
+    private final String name;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    /**
+     * @param name name of the stage
+     */
+    Stage(String name) {
+        this.name = name;
+    }
+
+    /**
+     * records the duration of the stage since start
+     *
+     * @param start value of System.nanoTime() at the beginning of the stage
+     */
+    public void record(long start) {
+        histogram.record(System.nanoTime() - start);
+    }
+
+    /**
+     * @return the durations of the stage
+     */
+    public LatencyHistogram histogram() {
+        return histogram;
+    }
+
+    /**
+     * @return one line with the median, the 99th percentile and the maximum duration of the stage in milliseconds
+     */
+    public String summary() {
+        return String.format(Locale.ROOT, "%-18s p50 %7.2f  p99 %7.2f  max %7.2f ms",
+                name, histogram.percentile(0.5) * 1e-6, histogram.percentile(0.99) * 1e-6, histogram.max() * 1e-6);
+    }
+
+    /**
+     * emits the statistics of every stage in the flight recorder once per second, while a recording is running
+     */
+    public static void exportToFlightRecorder() {
+        FlightRecorder.addPeriodicEvent(StageStatisticsEvent.class, () -> {
+            for (Stage stage : ALL) {
+                StageStatisticsEvent event = new StageStatisticsEvent();
+                event.stage = stage.name;
+                event.count = stage.histogram.count();
+                event.p50 = stage.histogram.percentile(0.5);
+                event.p99 = stage.histogram.percentile(0.99);
+                event.max = stage.histogram.max();
+                event.commit();
+            }
+        });
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,31 @@
+package ch.epfl.rigel.profiling;
+
+import jdk.jfr.*;
+
+//flight recorder event contains the statistics of the durations of a stage
+//by Jiabao WEN
+@Name("ch.epfl.rigel.StageStatistics")
+@Label("Stage Statistics")
+@Category("Rigel")
+@Period("1 s")
+@StackTrace(false)
+final class StageStatisticsEvent extends Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Count")
+    long count;
+
+    @Label("Median")
+    @Timespan(Timespan.NANOSECONDS)
+    long p50;
+
+    @Label("99th Percentile")
+    @Timespan(Timespan.NANOSECONDS)
+    long p99;
+
+    @Label("Maximum")
+    @Timespan(Timespan.NANOSECONDS)
+    long max;
+}
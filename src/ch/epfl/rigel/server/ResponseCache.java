@@ -0,0 +1,46 @@
+package ch.epfl.rigel.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//a least recently used cache of the bodies of the responses
+//by Jiabao WEN
+final class ResponseCache {
+
+    private final Map<String, byte[]> responses;
+
+    /**
+     * @param capacity maximum number of responses kept in the cache
+     */
+    ResponseCache(int capacity) {
+        this.responses = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @param key key of the response
+     * @return the body of the response, or null if it isn't in the cache
+     */
+    synchronized byte[] get(String key) {
+        return responses.get(key);
+    }
+
+    /**
+     * @param key  key of the response
+     * @param body body of the response
+     */
+    synchronized void put(String key, byte[] body) {
+        responses.put(key, body);
+    }
+
+    /**
+     * @return number of responses in the cache
+     */
+    synchronized int size() {
+        return responses.size();
+    }
+}
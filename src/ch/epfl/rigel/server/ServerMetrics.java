@@ -0,0 +1,70 @@
+package ch.epfl.rigel.server;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+//counts the requests of the sky server, their latency, their internal errors and the hits of the response cache
+//by Jiabao WEN
+final class ServerMetrics {
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * @param nanos    time spent answering the request, in nanoseconds
+     * @param cacheHit true iff the response came from the cache
+     */
+    void record(long nanos, boolean cacheHit) {
+        requests.increment();
+        if (cacheHit) {
+            cacheHits.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * counts a request which failed with an internal error, its latency is recorded by record
+     */
+    void recordError() {
+        errors.increment();
+    }
+
+    /**
+     * @return number of answered requests
+     */
+    long requests() {
+        return requests.sum();
+    }
+
+    /**
+     * @return number of requests answered from the cache
+     */
+    long cacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * @return number of requests which failed with an internal error
+     */
+    long errors() {
+        return errors.sum();
+    }
+
+    /**
+     * @param cacheSize current number of responses in the cache
+     * @return the metrics in plain text, one per line
+     */
+    String report(int cacheSize) {
+        long count = requests();
+        long hits = cacheHits();
+        return String.format(Locale.ROOT,
+                "requests %d%nerrors %d%ncache_hits %d%ncache_hit_ratio %.3f%ncache_size %d%nlatency_mean_ms %.3f%nlatency_max_ms %.3f%n",
+                count, errors(), hits, count == 0 ? 0.0 : (double) hits / count, cacheSize,
+                count == 0 ? 0.0 : totalNanos.sum() * 1e-6 / count, maxNanos.get() * 1e-6);
+    }
+}
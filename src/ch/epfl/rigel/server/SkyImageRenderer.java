@@ -0,0 +1,118 @@
+package ch.epfl.rigel.server;
+
+import ch.epfl.rigel.astronomy.Asterism;
+import ch.epfl.rigel.astronomy.CelestialObject;
+import ch.epfl.rigel.astronomy.ObservedSky;
+import ch.epfl.rigel.coordinates.CartesianCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.math.ClosedInterval;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+//draws an observed sky in a PNG image without JavaFX, so that it can be used by a headless server
+//by Jiabao WEN
+final class SkyImageRenderer {
+
+    private final static ClosedInterval MAGNITUDE_INTERVAL = ClosedInterval.of(-2, 5);
+    private final static double MAGNITUDE = 2 * Math.tan(Angle.ofDeg(0.5) / 4);
+    private final static HorizontalCoordinates HORIZON = HorizontalCoordinates.ofDeg(0, 0);
+
+    private SkyImageRenderer() {
+    }
+
+    /**
+     * @param sky            observed sky
+     * @param projection     used stereographic projection
+     * @param fieldOfViewDeg horizontal field of view in degree
+     * @param width          width of the image in pixels
+     * @param height         height of the image in pixels
+     * @return the sky drawn in a PNG image
+     * @throws IOException if the image can't be encoded
+     */
+    static byte[] renderPng(ObservedSky sky, StereographicProjection projection, double fieldOfViewDeg,
+                            int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, width, height);
+
+            double scale = width / projection.applyToAngle(Angle.ofDeg(fieldOfViewDeg));
+            double[] stars = sky.starPositions();
+            toImage(stars, scale, width, height);
+
+            g.setColor(Color.BLUE);
+            for (Asterism asterism : sky.asterisms()) {
+                List<Integer> indices = sky.asterismIndices(asterism);
+                for (int i = 1; i < indices.size(); i++) {
+                    int from = indices.get(i - 1) * 2;
+                    int to = indices.get(i) * 2;
+                    g.draw(new Line2D.Double(stars[from], stars[from + 1], stars[to], stars[to + 1]));
+                }
+            }
+
+            g.setColor(Color.WHITE);
+            for (int i = 0; i < stars.length; i += 2) {
+                fillDisc(g, stars[i], stars[i + 1], diameter(sky.stars().get(i / 2), scale));
+            }
+
+            double[] planets = sky.planetPositions();
+            toImage(planets, scale, width, height);
+            g.setColor(Color.LIGHT_GRAY);
+            for (int i = 0; i < planets.length; i += 2) {
+                fillDisc(g, planets[i], planets[i + 1], diameter(sky.planets().get(i / 2), scale));
+            }
+
+            g.setColor(Color.YELLOW);
+            fillObject(g, sky.sunPosition(), projection.applyToAngle(sky.sun().angularSize()) * scale, scale, width, height);
+            g.setColor(Color.WHITE);
+            fillObject(g, sky.moonPosition(), projection.applyToAngle(sky.moon().angularSize()) * scale, scale, width, height);
+
+            CartesianCoordinates horizonCenter = projection.circleCenterForParallel(HORIZON);
+            double r = projection.circleRadiusForParallel(HORIZON) * scale;
+            double cx = width / 2.0 + horizonCenter.x() * scale;
+            double cy = height / 2.0 - horizonCenter.y() * scale;
+            g.setColor(Color.RED);
+            g.setStroke(new BasicStroke(2));
+            g.draw(new Ellipse2D.Double(cx - r, cy - r, 2 * r, 2 * r));
+        } finally {
+            g.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static void toImage(double[] positions, double scale, int width, int height) {
+        for (int i = 0; i < positions.length; i += 2) {
+            positions[i] = width / 2.0 + positions[i] * scale;
+            positions[i + 1] = height / 2.0 - positions[i + 1] * scale;
+        }
+    }
+
+    private static void fillObject(Graphics2D g, CartesianCoordinates position, double diameter,
+                                   double scale, int width, int height) {
+        fillDisc(g, width / 2.0 + position.x() * scale, height / 2.0 - position.y() * scale, diameter);
+    }
+
+    private static void fillDisc(Graphics2D g, double x, double y, double diameter) {
+        g.fill(new Ellipse2D.Double(x - diameter / 2, y - diameter / 2, diameter, diameter));
+    }
+
+    private static double diameter(CelestialObject object, double scale) {
+        double mPrime = MAGNITUDE_INTERVAL.clip(object.magnitude());
+        double f = (99 - 17 * mPrime) / 140;
+        return f * MAGNITUDE * scale;
+    }
+}
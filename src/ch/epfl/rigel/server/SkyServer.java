@@ -0,0 +1,320 @@
+package ch.epfl.rigel.server;
+
+import ch.epfl.rigel.astronomy.*;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.math.ClosedInterval;
+import ch.epfl.rigel.math.RightOpenInterval;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//a local HTTP server answering queries about the sky without the JavaFX interface
+//the responses are cached, keyed on the time and the location quantized to TIME_QUANTUM_SEC and DEGREE_QUANTUM
+//
+//GET /objects    objects visible in the view, with their position in the image (JSON)
+//GET /positions  projected positions of the Sun, the Moon, the planets and the stars (JSON)
+//GET /sky.png    the view drawn in a PNG image
+//GET /metrics    number of requests, cache hits, internal errors and latency (plain text)
+//
+//parameters : time (ISO zoned date time), lon, lat, az, alt, fov (degree), width, height (pixels)
+//by Jiabao WEN
+public final class SkyServer {
+
+    private final static long TIME_QUANTUM_SEC = 60;
+    private final static double DEGREE_QUANTUM = 0.1;
+    private final static int DEFAULT_PORT = 8080;
+    private final static int DEFAULT_CACHE_CAPACITY = 256;
+
+    private final StarCatalogue catalogue;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ResponseCache cache;
+    private final ServerMetrics metrics = new ServerMetrics();
+
+    /**
+     * @param catalogue     star catalogue
+     * @param port          port on localhost, 0 to let the system choose a free one
+     * @param cacheCapacity maximum number of responses kept in the cache
+     * @throws IOException if the server can't be bound to the port
+     */
+    public SkyServer(StarCatalogue catalogue, int port, int cacheCapacity) throws IOException {
+        this.catalogue = catalogue;
+        this.cache = new ResponseCache(cacheCapacity);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+
+        server.createContext("/objects", exchange -> handle(exchange, "application/json", this::objects));
+        server.createContext("/positions", exchange -> handle(exchange, "application/json", this::positions));
+        server.createContext("/sky.png", exchange -> handle(exchange, "image/png", this::image));
+        server.createContext("/metrics", exchange ->
+                send(exchange, 200, "text/plain", metrics.report(cache.size()).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @param args port (8080 by default)
+     * @throws IOException if the catalogue can't be loaded or the server can't be started
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        try (InputStream hs = SkyServer.class.getResourceAsStream("/hygdata_v3.csv");
+             InputStream as = SkyServer.class.getResourceAsStream("/asterisms.txt")) {
+            StarCatalogue catalogue = new StarCatalogue.Builder()
+                    .loadFrom(hs, HygDatabaseLoader.INSTANCE)
+                    .loadFrom(as, AsterismLoader.INSTANCE)
+                    .build();
+            SkyServer skyServer = new SkyServer(catalogue, port, DEFAULT_CACHE_CAPACITY);
+            skyServer.start();
+            System.out.println("Rigel sky server listening on http://localhost:" + skyServer.port());
+        }
+    }
+
+    /**
+     * starts answering requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * stops the server, the requests being answered are given one second to finish
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * @return the port the server is bound to
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return number of answered sky requests
+     */
+    public long requests() {
+        return metrics.requests();
+    }
+
+    /**
+     * @return number of sky requests answered from the cache
+     */
+    public long cacheHits() {
+        return metrics.cacheHits();
+    }
+
+    /**
+     * @return number of sky requests which failed with an internal error
+     */
+    public long errors() {
+        return metrics.errors();
+    }
+
+    private byte[] objects(SkyRequest request) {
+        ObservedSky sky = request.sky(catalogue);
+        double scale = request.scale();
+        StringBuilder json = new StringBuilder("[");
+
+        appendIfVisible(json, request, sky.sun(), sky.sunPosition().x() * scale, sky.sunPosition().y() * scale);
+        appendIfVisible(json, request, sky.moon(), sky.moonPosition().x() * scale, sky.moonPosition().y() * scale);
+        double[] planets = sky.planetPositions();
+        for (int i = 0; i < planets.length; i += 2) {
+            appendIfVisible(json, request, sky.planets().get(i / 2), planets[i] * scale, planets[i + 1] * scale);
+        }
+        double[] stars = sky.starPositions();
+        for (int i = 0; i < stars.length; i += 2) {
+            appendIfVisible(json, request, sky.stars().get(i / 2), stars[i] * scale, stars[i + 1] * scale);
+        }
+
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void appendIfVisible(StringBuilder json, SkyRequest request, CelestialObject object, double x, double y) {
+        double imageX = request.width / 2.0 + x;
+        double imageY = request.height / 2.0 - y;
+        if (imageX < 0 || imageX >= request.width || imageY < 0 || imageY >= request.height) {
+            return;
+        }
+        if (json.length() > 1) {
+            json.append(',');
+        }
+        json.append("{\"name\":\"");
+        for (char c : object.name().toCharArray()) {
+            if (c == '"' || c == '\\') {
+                json.append('\\');
+            }
+            json.append(c);
+        }
+        json.append("\",\"x\":").append(imageX)
+                .append(",\"y\":").append(imageY)
+                .append(",\"magnitude\":").append(object.magnitude())
+                .append('}');
+    }
+
+    private byte[] positions(SkyRequest request) {
+        ObservedSky sky = request.sky(catalogue);
+        StringBuilder json = new StringBuilder();
+        json.append("{\"sun\":[").append(sky.sunPosition().x()).append(',').append(sky.sunPosition().y())
+                .append("],\"moon\":[").append(sky.moonPosition().x()).append(',').append(sky.moonPosition().y())
+                .append("],\"planets\":");
+        appendArray(json, sky.planetPositions());
+        json.append(",\"stars\":");
+        appendArray(json, sky.starPositions());
+        return json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendArray(StringBuilder json, double[] values) {
+        json.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(values[i]);
+        }
+        json.append(']');
+    }
+
+    private byte[] image(SkyRequest request) throws IOException {
+        return SkyImageRenderer.renderPng(request.sky(catalogue), request.projection(), request.fieldOfViewDeg,
+                request.width, request.height);
+    }
+
+    private void handle(HttpExchange exchange, String contentType, Responder responder) throws IOException {
+        long start = System.nanoTime();
+        boolean cacheHit = false;
+        try {
+            SkyRequest request = SkyRequest.parse(exchange.getRequestURI().getRawQuery());
+            String key = exchange.getRequestURI().getPath() + '?' + request.key();
+            byte[] body = cache.get(key);
+            cacheHit = body != null;
+            if (!cacheHit) {
+                body = responder.respond(request);
+                cache.put(key, body);
+            }
+            exchange.getResponseHeaders().set("X-Cache", cacheHit ? "HIT" : "MISS");
+            send(exchange, 200, contentType, body);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            send(exchange, 400, "text/plain", (e.getMessage() + "\n").getBytes(StandardCharsets.UTF_8));
+        } catch (IOException | RuntimeException e) {
+            //the exchange must be closed, otherwise the client waits until its timeout
+            metrics.recordError();
+            send(exchange, 500, "text/plain", ("internal error : " + e + "\n").getBytes(StandardCharsets.UTF_8));
+        } finally {
+            metrics.record(System.nanoTime() - start, cacheHit);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        try {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    //computes the body of a response
+    //by Jiabao WEN
+    @FunctionalInterface
+    private interface Responder {
+        byte[] respond(SkyRequest request) throws IOException;
+    }
+
+    //parameters of a request, quantized so that close requests share the same cached response
+    //by Jiabao WEN
+    private static final class SkyRequest {
+        private final static RightOpenInterval LON_INTERVAL = RightOpenInterval.symmetric(360);
+        private final static RightOpenInterval AZ_INTERVAL = RightOpenInterval.of(0, 360);
+        private final static ClosedInterval FOV_INTERVAL = ClosedInterval.of(1, 180);
+        private final static ClosedInterval SIZE_INTERVAL = ClosedInterval.of(1, 4096);
+
+        private final ZonedDateTime when;
+        private final double lonDeg, latDeg, azDeg, altDeg, fieldOfViewDeg;
+        private final int width, height;
+
+        private SkyRequest(ZonedDateTime when, double lonDeg, double latDeg, double azDeg, double altDeg,
+                           double fieldOfViewDeg, int width, int height) {
+            this.when = when;
+            this.lonDeg = lonDeg;
+            this.latDeg = latDeg;
+            this.azDeg = azDeg;
+            this.altDeg = altDeg;
+            this.fieldOfViewDeg = fieldOfViewDeg;
+            this.width = width;
+            this.height = height;
+        }
+
+        static SkyRequest parse(String rawQuery) {
+            Map<String, String> parameters = new HashMap<>();
+            if (rawQuery != null) {
+                for (String parameter : rawQuery.split("&")) {
+                    int equal = parameter.indexOf('=');
+                    if (equal > 0) {
+                        parameters.put(URLDecoder.decode(parameter.substring(0, equal), StandardCharsets.UTF_8),
+                                URLDecoder.decode(parameter.substring(equal + 1), StandardCharsets.UTF_8));
+                    }
+                }
+            }
+
+            String time = parameters.get("time");
+            long epochSecond = (time == null ? ZonedDateTime.now() : ZonedDateTime.parse(time)).toEpochSecond();
+            ZonedDateTime when = ZonedDateTime.ofInstant(
+                    Instant.ofEpochSecond(Math.floorDiv(epochSecond, TIME_QUANTUM_SEC) * TIME_QUANTUM_SEC), ZoneOffset.UTC);
+
+            return new SkyRequest(when,
+                    LON_INTERVAL.reduce(quantize(parameters, "lon", 6.57)),
+                    quantize(parameters, "lat", 46.52),
+                    AZ_INTERVAL.reduce(quantize(parameters, "az", 180)),
+                    quantize(parameters, "alt", 15),
+                    FOV_INTERVAL.clip(quantize(parameters, "fov", 100)),
+                    (int) SIZE_INTERVAL.clip(Integer.parseInt(parameters.getOrDefault("width", "800"))),
+                    (int) SIZE_INTERVAL.clip(Integer.parseInt(parameters.getOrDefault("height", "600"))));
+        }
+
+        private static double quantize(Map<String, String> parameters, String name, double defaultValue) {
+            String value = parameters.get(name);
+            double v = value == null ? defaultValue : Double.parseDouble(value);
+            return Math.round(v / DEGREE_QUANTUM) * DEGREE_QUANTUM;
+        }
+
+        String key() {
+            return String.format(Locale.ROOT, "t=%d&lon=%.1f&lat=%.1f&az=%.1f&alt=%.1f&fov=%.1f&w=%d&h=%d",
+                    when.toEpochSecond(), lonDeg, latDeg, azDeg, altDeg, fieldOfViewDeg, width, height);
+        }
+
+        StereographicProjection projection() {
+            return new StereographicProjection(HorizontalCoordinates.ofDeg(azDeg, altDeg));
+        }
+
+        ObservedSky sky(StarCatalogue catalogue) {
+            return new ObservedSky(when, GeographicCoordinates.ofDeg(lonDeg, latDeg), projection(), catalogue);
+        }
+
+        //number of pixels per unit of the projection plane
+        double scale() {
+            return width / projection().applyToAngle(Angle.ofDeg(fieldOfViewDeg));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static ch.epfl.rigel.astronomy.AstronomicalEvent.Type.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventFinderTest {
+
+    //the model of the moon is accurate to a few tens of minutes on the instants of its phases
+    private final static Duration PHASE_TOLERANCE = Duration.ofMinutes(45);
+    private final static Duration TWILIGHT_TOLERANCE = Duration.ofMinutes(2);
+
+    //the moon phases of 2020 published by the U.S. Naval Observatory, in UTC
+    private final static Object[][] PHASES_2020 = {
+            {FIRST_QUARTER, "2020-01-03T04:45Z"}, {FULL_MOON, "2020-01-10T19:21Z"},
+            {LAST_QUARTER, "2020-01-17T12:58Z"}, {NEW_MOON, "2020-01-24T21:42Z"},
+            {FIRST_QUARTER, "2020-02-02T01:42Z"}, {FULL_MOON, "2020-02-09T07:33Z"},
+            {LAST_QUARTER, "2020-02-15T22:17Z"}, {NEW_MOON, "2020-02-23T15:32Z"},
+            {FIRST_QUARTER, "2020-03-02T19:57Z"}, {FULL_MOON, "2020-03-09T17:48Z"},
+            {LAST_QUARTER, "2020-03-16T09:34Z"}, {NEW_MOON, "2020-03-24T09:28Z"},
+            {FIRST_QUARTER, "2020-04-01T10:21Z"}, {FULL_MOON, "2020-04-08T02:35Z"},
+            {LAST_QUARTER, "2020-04-14T22:56Z"}, {NEW_MOON, "2020-04-23T02:26Z"},
+            {FIRST_QUARTER, "2020-04-30T20:38Z"}, {FULL_MOON, "2020-05-07T10:45Z"},
+            {LAST_QUARTER, "2020-05-14T14:03Z"}, {NEW_MOON, "2020-05-22T17:39Z"},
+            {FIRST_QUARTER, "2020-05-30T03:30Z"}, {FULL_MOON, "2020-06-05T19:12Z"},
+            {LAST_QUARTER, "2020-06-13T06:24Z"}, {NEW_MOON, "2020-06-21T06:41Z"},
+            {FIRST_QUARTER, "2020-06-28T08:16Z"}, {FULL_MOON, "2020-07-05T04:44Z"},
+            {LAST_QUARTER, "2020-07-12T23:29Z"}, {NEW_MOON, "2020-07-20T17:33Z"},
+            {FIRST_QUARTER, "2020-07-27T12:33Z"}, {FULL_MOON, "2020-08-03T15:59Z"},
+            {LAST_QUARTER, "2020-08-11T16:45Z"}, {NEW_MOON, "2020-08-19T02:42Z"},
+            {FIRST_QUARTER, "2020-08-25T17:58Z"}, {FULL_MOON, "2020-09-02T05:22Z"},
+            {LAST_QUARTER, "2020-09-10T09:26Z"}, {NEW_MOON, "2020-09-17T11:00Z"},
+            {FIRST_QUARTER, "2020-09-24T01:55Z"}, {FULL_MOON, "2020-10-01T21:05Z"},
+            {LAST_QUARTER, "2020-10-10T00:39Z"}, {NEW_MOON, "2020-10-16T19:31Z"},
+            {FIRST_QUARTER, "2020-10-23T13:23Z"}, {FULL_MOON, "2020-10-31T14:49Z"},
+            {LAST_QUARTER, "2020-11-08T13:46Z"}, {NEW_MOON, "2020-11-15T05:07Z"},
+            {FIRST_QUARTER, "2020-11-22T04:45Z"}, {FULL_MOON, "2020-11-30T09:30Z"},
+            {LAST_QUARTER, "2020-12-08T00:37Z"}, {NEW_MOON, "2020-12-14T16:17Z"},
+            {FIRST_QUARTER, "2020-12-21T23:41Z"}, {FULL_MOON, "2020-12-30T03:28Z"}
+    };
+
+    //at the equator on the equinox, the sun rises vertically by 15° per hour around the solar noon of 12:07:20
+    private final static Object[][] TWILIGHTS_EQUINOX = {
+            {ASTRONOMICAL_DAWN, "2020-03-20T04:55:20Z"}, {NAUTICAL_DAWN, "2020-03-20T05:19:20Z"},
+            {CIVIL_DAWN, "2020-03-20T05:43:20Z"}, {CIVIL_DUSK, "2020-03-20T18:31:20Z"},
+            {NAUTICAL_DUSK, "2020-03-20T18:55:20Z"}, {ASTRONOMICAL_DUSK, "2020-03-20T19:19:20Z"}
+    };
+
+    private static void assertEvents(Object[][] expected, List<AstronomicalEvent> actual, Duration tolerance) {
+        assertEquals(expected.length, actual.size());
+        for (int i = 0; i < expected.length; i++) {
+            AstronomicalEvent event = actual.get(i);
+            ZonedDateTime when = ZonedDateTime.parse((String) expected[i][1]);
+            assertEquals(expected[i][0], event.type());
+            assertTrue(Duration.between(when, event.when()).abs().compareTo(tolerance) <= 0,
+                    () -> event + " is too far from " + when);
+        }
+    }
+
+    @Test
+    void moonPhasesOf2020AreTheKnownOnes() {
+        assertEvents(PHASES_2020, EventFinder.moonPhases(
+                ZonedDateTime.parse("2020-01-01T00:00Z"), ZonedDateTime.parse("2021-01-01T00:00Z")), PHASE_TOLERANCE);
+    }
+
+    @Test
+    void twilightsOfTheEquinoxAtTheEquatorAreTheKnownOnes() {
+        assertEvents(TWILIGHTS_EQUINOX, EventFinder.twilights(ZonedDateTime.parse("2020-03-20T00:00Z"),
+                ZonedDateTime.parse("2020-03-21T00:00Z"), GeographicCoordinates.ofDeg(0, 0)), TWILIGHT_TOLERANCE);
+    }
+
+    @Test
+    void emptyRangesHaveNoEvent() {
+        ZonedDateTime when = ZonedDateTime.parse("2020-03-20T05:43:20Z");
+        assertEquals(List.of(), EventFinder.moonPhases(when, when));
+        assertEquals(List.of(), EventFinder.twilights(when, when, GeographicCoordinates.ofDeg(0, 0)));
+    }
+
+    @Test
+    void reversedRangesAreRejected() {
+        ZonedDateTime from = ZonedDateTime.parse("2020-03-21T00:00Z");
+        ZonedDateTime to = from.minusDays(1);
+        assertThrows(IllegalArgumentException.class, () -> EventFinder.moonPhases(from, to));
+        assertThrows(IllegalArgumentException.class,
+                () -> EventFinder.twilights(from, to, GeographicCoordinates.ofDeg(0, 0)));
+    }
+
+    @Test
+    void polarDaysAndNightsHaveNoTwilight() {
+        //the sun stays above the horizon at the north pole around the summer solstice
+        assertEquals(List.of(), EventFinder.twilights(ZonedDateTime.parse("2020-06-18T00:00Z"),
+                ZonedDateTime.parse("2020-06-25T00:00Z"), GeographicCoordinates.ofDeg(0, 90)));
+        //the sun stays more than 18° below the horizon close to the pole around the winter solstice
+        assertEquals(List.of(), EventFinder.twilights(ZonedDateTime.parse("2020-12-18T00:00Z"),
+                ZonedDateTime.parse("2020-12-25T00:00Z"), GeographicCoordinates.ofDeg(0, 89)));
+    }
+}
@@ -0,0 +1,136 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StarCatalogueTest {
+
+    //more than two chunks of 1024 stars
+    private final static int SIZE = 3000;
+
+    //the stars have the Hipparcos numbers 1 to SIZE, the star of number h is at the index h - 1
+    private static List<Star> stars() {
+        List<Star> stars = new ArrayList<>();
+        for (int hipparcosId = 1; hipparcosId <= SIZE; hipparcosId++) {
+            stars.add(star(hipparcosId, 1));
+        }
+        return stars;
+    }
+
+    private static Star star(int hipparcosId, float magnitude) {
+        return new Star(hipparcosId, "Star " + hipparcosId, EquatorialCoordinates.of(hipparcosId * 1e-3, 0), magnitude, 0);
+    }
+
+    private static void assertIndexed(StarCatalogue catalogue) {
+        for (int i = 0; i < catalogue.stars().size(); i++) {
+            assertEquals(i, catalogue.starIndex(catalogue.stars().get(i).hipparcosId()));
+        }
+    }
+
+    @Test
+    void removedStarsShiftTheReplacedOnesAcrossAChunkBoundary() {
+        StarCatalogue catalogue = new StarCatalogue(stars(), List.of());
+        Star replacement = star(1025, 5);
+        StarCatalogue edited = catalogue.withDelta(new StarCatalogue.Delta()
+                .removeStar(1000)
+                .replaceStar(replacement)
+                .removeStar(2500));
+
+        assertEquals(SIZE - 2, edited.stars().size());
+        //the replaced star was the first of the second chunk, it is now the last of the first one
+        assertSame(replacement, edited.stars().get(1023));
+        assertEquals(1023, edited.starIndex(1025));
+        assertEquals(1024, edited.stars().get(1022).hipparcosId());
+        assertEquals(2501, edited.stars().get(2498).hipparcosId());
+        assertEquals(-1, edited.starIndex(1000));
+        assertEquals(-1, edited.starIndex(2500));
+        assertIndexed(edited);
+    }
+
+    @Test
+    void replacementsInSharedChunksDontChangeTheOriginal() {
+        List<Star> stars = stars();
+        StarCatalogue catalogue = new StarCatalogue(stars, List.of());
+        Star first = star(10, 5);
+        Star second = star(1030, 5);
+        //the removal is in the third chunk, the first two are shared with the original catalogue
+        StarCatalogue edited = catalogue.withDelta(new StarCatalogue.Delta()
+                .removeStar(2500)
+                .replaceStar(first)
+                .replaceStar(second));
+
+        assertSame(first, edited.stars().get(9));
+        assertSame(second, edited.stars().get(1029));
+        assertEquals(stars, catalogue.stars());
+        for (int i = 0; i < SIZE; i++) {
+            assertSame(stars.get(i), catalogue.stars().get(i));
+        }
+        assertIndexed(catalogue);
+        assertIndexed(edited);
+    }
+
+    @Test
+    void addedStarsWithAnIndexedHipparcosNumberAreTheIndexedOnes() {
+        StarCatalogue catalogue = new StarCatalogue(stars(), List.of());
+        Star duplicate = star(5, 3);
+
+        StarCatalogue added = catalogue.withDelta(new StarCatalogue.Delta().addStar(duplicate));
+        assertEquals(SIZE + 1, added.stars().size());
+        assertEquals(SIZE, added.starIndex(5));
+        assertEquals(5, added.stars().get(4).hipparcosId());
+        assertSame(duplicate, added.stars().get(SIZE));
+        assertEquals(4, catalogue.starIndex(5));
+
+        //with a removal, the index is rebuilt from the stars
+        StarCatalogue removedAndAdded = catalogue.withDelta(new StarCatalogue.Delta().removeStar(1).addStar(duplicate));
+        assertEquals(SIZE - 1, removedAndAdded.starIndex(5));
+        assertSame(duplicate, removedAndAdded.stars().get(SIZE - 1));
+    }
+
+    @Test
+    void keptAsterismsCantContainARemovedStar() {
+        List<Star> stars = stars();
+        Asterism asterism = new Asterism(List.of(stars.get(1999), stars.get(2000)));
+        StarCatalogue catalogue = new StarCatalogue(stars, List.of(asterism));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> catalogue.withDelta(new StarCatalogue.Delta().removeStar(2001)));
+        StarCatalogue edited = catalogue.withDelta(new StarCatalogue.Delta().removeStar(2001).removeAsterism(asterism));
+        assertEquals(Set.of(), edited.asterisms());
+        assertEquals(Set.of(asterism), catalogue.asterisms());
+    }
+
+    @Test
+    void replacedStarsAreReplacedInTheirAsterisms() {
+        List<Star> stars = stars();
+        Asterism asterism = new Asterism(List.of(stars.get(1999), stars.get(2000), stars.get(5)));
+        StarCatalogue catalogue = new StarCatalogue(stars, List.of(asterism));
+        Star replacement = star(2001, 4);
+
+        StarCatalogue edited = catalogue.withDelta(new StarCatalogue.Delta().removeStar(100).replaceStar(replacement));
+
+        assertEquals(1, edited.asterisms().size());
+        Asterism editedAsterism = edited.asterisms().iterator().next();
+        assertSame(stars.get(1999), editedAsterism.stars().get(0));
+        assertSame(replacement, editedAsterism.stars().get(1));
+        assertSame(stars.get(5), editedAsterism.stars().get(2));
+        List<Integer> indices = edited.asterismIndices(editedAsterism);
+        assertEquals(List.of(1998, 1999, 5), indices);
+        for (int i = 0; i < indices.size(); i++) {
+            assertSame(editedAsterism.stars().get(i), edited.stars().get(indices.get(i)));
+        }
+
+        //the original catalogue keeps its asterism, its indices and its stars
+        assertEquals(Set.of(asterism), catalogue.asterisms());
+        assertEquals(List.of(1999, 2000, 5), catalogue.asterismIndices(asterism));
+        assertSame(stars.get(2000), catalogue.stars().get(2000));
+    }
+}
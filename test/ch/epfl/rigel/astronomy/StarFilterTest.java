@@ -0,0 +1,34 @@
+package ch.epfl.rigel.astronomy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StarFilterTest {
+
+    @Test
+    void keepingMergesTheKeptAsterisms() {
+        StarFilter filter = StarFilter.brighterThan(2)
+                .keeping(List.of(new int[]{1, 2}))
+                .keeping(List.of(new int[]{3}, new int[]{4, 5}));
+        for (int hipparcosId = 1; hipparcosId <= 5; hipparcosId++) {
+            assertTrue(filter.accepts(hipparcosId, 8, 0, 0));
+        }
+        assertFalse(filter.accepts(6, 8, 0, 0));
+        assertTrue(filter.accepts(6, 1, 0, 0));
+    }
+
+    @Test
+    void keepingDoesntChangeTheReceiver() {
+        StarFilter filter = StarFilter.brighterThan(2).keeping(List.of(new int[]{1}));
+        StarFilter more = filter.keeping(List.of(new int[]{2}));
+        assertTrue(more.accepts(1, 8, 0, 0));
+        assertTrue(more.accepts(2, 8, 0, 0));
+        assertTrue(filter.accepts(1, 8, 0, 0));
+        assertFalse(filter.accepts(2, 8, 0, 0));
+        assertFalse(StarFilter.ALL.withLimitingMagnitude(2).accepts(1, 8, 0, 0));
+    }
+}
@@ -0,0 +1,41 @@
+package ch.epfl.rigel.astronomy;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StarNamesTest {
+
+    @Test
+    void namesAreDecodedAsTheyWereEncoded() {
+        assertEquals("Rigel", StarNames.decode(StarNames.encode("Rigel", "Bet", "Ori")));
+        assertEquals("Alp Ori", StarNames.decode(StarNames.encode("", "Alp", "Ori")));
+        assertEquals("? UMa", StarNames.decode(StarNames.encode(" ", "", "UMa")));
+        assertEquals("? ", StarNames.decode(StarNames.encode("", "", "")));
+    }
+
+    @Test
+    void allTheConstellationsOfTheIauAreKnown() {
+        String[] constellations = {"And", "CVn", "CrA", "PsA", "Ser", "TrA", "UMi", "Vul"};
+        for (String constellation : constellations) {
+            assertEquals("Gam " + constellation, StarNames.decode(StarNames.encode("", "Gam", constellation)));
+        }
+    }
+
+    @Test
+    void unknownConstellationsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> StarNames.encode("", "Alp", "Xyz"));
+        assertThrows(IllegalArgumentException.class, () -> StarNames.encode("", "Alp", "ori"));
+    }
+
+    @Test
+    void rejectedConstellationsDontFillTheTable() {
+        //more different abbreviations than the 256 codes of the constellations
+        for (int i = 0; i < 1000; i++) {
+            int attempt = i;
+            assertThrows(IllegalArgumentException.class, () -> StarNames.encode("", "Alp", "C" + attempt));
+        }
+        assertEquals("Alp Lyr", StarNames.decode(StarNames.encode("", "Alp", "Lyr")));
+    }
+}
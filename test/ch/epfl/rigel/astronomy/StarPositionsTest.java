@@ -0,0 +1,51 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.coordinates.PrecessionNutation;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class StarPositionsTest {
+
+    private final static ZonedDateTime WHEN = ZonedDateTime.parse("2020-04-17T21:00:00+02:00");
+
+    private static StarPositions positions() {
+        List<Star> stars = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            stars.add(new Star(i, "Star " + i, EquatorialCoordinates.of(i * 0.6, i * 0.15 - 0.7), 1, 0));
+        }
+        return new StarPositions(stars);
+    }
+
+    @Test
+    void observersAtDifferentDatesShareTheirPositions() {
+        StarPositions positions = positions();
+        ZonedDateTime other = WHEN.plusYears(50);
+        double[] now = positions.at(WHEN);
+        double[] then = positions.at(other);
+        assertNotSame(now, then);
+        for (int i = 0; i < 10; i++) {
+            assertSame(now, positions.at(WHEN.plusMinutes(i)));
+            assertSame(then, positions.at(other.plusMinutes(i)));
+        }
+    }
+
+    @Test
+    void positionsAreTheOnesOfTheDate() {
+        double[] positions = positions().at(WHEN);
+        assertEquals(20, positions.length);
+        for (int i = 0; i < 10; i++) {
+            EquatorialCoordinates j2000 = EquatorialCoordinates.of(i * 0.6, i * 0.15 - 0.7);
+            EquatorialCoordinates ofDate = PrecessionNutation.at(WHEN).apply(j2000);
+            assertEquals(ofDate.ra(), positions[2 * i], 1e-12);
+            assertEquals(ofDate.dec(), positions[2 * i + 1], 1e-12);
+        }
+    }
+}
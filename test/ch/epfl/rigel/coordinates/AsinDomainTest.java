@@ -0,0 +1,55 @@
+package ch.epfl.rigel.coordinates;
+
+import ch.epfl.rigel.astronomy.Epoch;
+import ch.epfl.rigel.astronomy.SiderealTime;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class AsinDomainTest {
+
+    private final static ZonedDateTime WHEN = ZonedDateTime.parse("2020-04-17T21:00:00+02:00");
+    private final static int STEPS = 10_000;
+
+    @Test
+    void starsAtTheZenithHaveAnAltitude() {
+        //sin(dec)^2 + cos(dec)^2 rounds above 1 for some of these latitudes
+        for (int i = 1; i < STEPS; i++) {
+            GeographicCoordinates where = GeographicCoordinates.ofDeg(6.57, 90.0 * i / STEPS);
+            EquatorialToHorizontalConversion conversion = new EquatorialToHorizontalConversion(WHEN, where);
+            double[] zenith = {SiderealTime.local(WHEN, where), where.lat()};
+            HorizontalCoordinates hor = conversion.apply(EquatorialCoordinates.of(zenith[0], zenith[1]));
+            assertFalse(Double.isNaN(hor.alt()));
+            conversion.applyTo(zenith, zenith, 0, 1);
+            assertFalse(Double.isNaN(zenith[1]));
+        }
+    }
+
+    @Test
+    void theNorthPoleIsOnTheEclipticMeridianOfTheSolstice() {
+        //the declination of the ecliptic point (pi/2, pi/2 - epsilon) is pi/2, its sine rounds above 1 on some dates
+        for (int i = 0; i < STEPS; i++) {
+            ZonedDateTime when = WHEN.plusDays(i);
+            EclipticToEquatorialConversion conversion = new EclipticToEquatorialConversion(when);
+            double epsilon = EclipticToEquatorialConversion.meanObliquity(Epoch.J2000.julianCenturiesUntil(when));
+            double[] pole = {Math.PI / 2, Math.PI / 2 - epsilon};
+            EquatorialCoordinates equ = conversion.apply(EclipticCoordinates.of(pole[0], pole[1]));
+            assertFalse(Double.isNaN(equ.dec()));
+            conversion.applyTo(pole, pole, 0, 1);
+            assertFalse(Double.isNaN(pole[1]));
+        }
+    }
+
+    @Test
+    void theZenithHasAnAltitudeOnEveryProjection() {
+        //the point at an angular distance c above the center is projected at the ordinate tan(c / 2)
+        for (int i = 1; i < STEPS; i++) {
+            double alt = Math.PI / 2 * i / STEPS;
+            StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.of(0, alt));
+            HorizontalCoordinates zenith = projection.inverseApply(CartesianCoordinates.of(0, Math.tan((Math.PI / 2 - alt) / 2)));
+            assertFalse(Double.isNaN(zenith.alt()));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ch.epfl.rigel.coordinates;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BatchConversionTest {
+
+    private final static ZonedDateTime WHEN = ZonedDateTime.parse("2020-04-17T21:00:00+02:00");
+    //more than two blocks, and not a multiple of the number of lanes of a vector
+    private final static int COUNT = 2 * BatchScratch.BLOCK_SIZE + 77;
+    private final static int FROM = 3;
+    private final static double DELTA = 1e-12;
+
+    private static double[] points(double minLat, double maxLat) {
+        Random random = new Random(108);
+        double[] points = new double[2 * COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            points[2 * i] = random.nextDouble() * 2 * Math.PI;
+            points[2 * i + 1] = minLat + random.nextDouble() * (maxLat - minLat);
+        }
+        return points;
+    }
+
+    private static void assertAngle(double expected, double actual) {
+        assertEquals(0, Math.IEEEremainder(expected - actual, 2 * Math.PI), DELTA);
+    }
+
+    @Test
+    void batchEquatorialToHorizontalIsApply() {
+        EquatorialToHorizontalConversion conversion =
+                new EquatorialToHorizontalConversion(WHEN, GeographicCoordinates.ofDeg(6.57, 46.52));
+        double[] in = points(-Math.PI / 2, Math.PI / 2);
+        double[] out = in.clone();
+        conversion.applyTo(out, out, FROM, COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            if (i < FROM) {
+                assertEquals(in[2 * i], out[2 * i]);
+                continue;
+            }
+            HorizontalCoordinates hor = conversion.apply(EquatorialCoordinates.of(in[2 * i], in[2 * i + 1]));
+            assertAngle(hor.az(), out[2 * i]);
+            assertEquals(hor.alt(), out[2 * i + 1], DELTA);
+        }
+    }
+
+    @Test
+    void batchEclipticToEquatorialIsApply() {
+        EclipticToEquatorialConversion conversion = new EclipticToEquatorialConversion(WHEN);
+        double[] in = points(-Math.PI / 2, Math.PI / 2);
+        double[] out = new double[in.length];
+        conversion.applyTo(in, out, FROM, COUNT);
+        for (int i = FROM; i < COUNT; i++) {
+            EquatorialCoordinates equ = conversion.apply(EclipticCoordinates.of(in[2 * i], in[2 * i + 1]));
+            assertAngle(equ.ra(), out[2 * i]);
+            assertEquals(equ.dec(), out[2 * i + 1], DELTA);
+        }
+    }
+
+    @Test
+    void batchProjectionIsApply() {
+        StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 45));
+        //the points close to the antipode of the center are projected far away, they are left out
+        double[] in = points(-Math.PI / 4, Math.PI / 2);
+        double[] out = in.clone();
+        projection.applyTo(out, out, FROM, COUNT);
+        for (int i = FROM; i < COUNT; i++) {
+            CartesianCoordinates xy = projection.apply(HorizontalCoordinates.of(in[2 * i], in[2 * i + 1]));
+            assertEquals(xy.x(), out[2 * i], DELTA * Math.max(1, Math.abs(xy.x())));
+            assertEquals(xy.y(), out[2 * i + 1], DELTA * Math.max(1, Math.abs(xy.y())));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ch.epfl.rigel.coordinates;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PrecessionNutationTest {
+
+    private final static ZonedDateTime WHEN = ZonedDateTime.parse("2020-04-17T21:00:00+02:00");
+
+    @Test
+    void instantsOfTheSameBucketShareTheirRotation() {
+        ZonedDateTime start = WHEN.plusNanos(1);
+        long bucket = PrecessionNutation.bucket(start);
+        ZonedDateTime sameBucket = start;
+        while (PrecessionNutation.bucket(sameBucket.plusHours(1)) == bucket) {
+            sameBucket = sameBucket.plusHours(1);
+        }
+        assertEquals(bucket, PrecessionNutation.bucket(sameBucket));
+        assertSame(PrecessionNutation.at(start), PrecessionNutation.at(sameBucket));
+        assertNotEquals(bucket, PrecessionNutation.bucket(sameBucket.plusHours(1)));
+    }
+
+    @Test
+    void alternatingDatesDontRecomputeTheirRotations() {
+        ZonedDateTime other = WHEN.minusYears(300);
+        PrecessionNutation now = PrecessionNutation.at(WHEN);
+        PrecessionNutation then = PrecessionNutation.at(other);
+        for (int i = 0; i < 10; i++) {
+            assertSame(now, PrecessionNutation.at(WHEN));
+            assertSame(then, PrecessionNutation.at(other));
+        }
+    }
+
+    @Test
+    void theRotationIsTheOneOfTheMiddleOfTheBucket() {
+        PrecessionNutation cached = PrecessionNutation.at(WHEN);
+        assertEquals(PrecessionNutation.bucket(WHEN), PrecessionNutation.bucket(cached.when()));
+        EquatorialCoordinates equ = EquatorialCoordinates.of(1.5, 0.4);
+        EquatorialCoordinates exact = new PrecessionNutation(WHEN).apply(equ);
+        EquatorialCoordinates approximated = cached.apply(equ);
+        //less than a second of arc
+        assertEquals(exact.ra(), approximated.ra(), 5e-6);
+        assertEquals(exact.dec(), approximated.dec(), 5e-6);
+    }
+}
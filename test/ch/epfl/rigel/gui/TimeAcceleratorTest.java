@@ -0,0 +1,192 @@
+package ch.epfl.rigel.gui;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TimeAcceleratorTest {
+
+    private final static long SECOND = 1_000_000_000L;
+    private final static ZonedDateTime T0 = ZonedDateTime.parse("2020-04-17T21:00:00Z");
+
+    private static ZonedDateTime ofNanos(long epochNanos) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(0, epochNanos), ZoneOffset.UTC);
+    }
+
+    private static long exactStepCount(int freqAdvanc, long deltaT) {
+        BigInteger[] qr = BigInteger.valueOf(freqAdvanc).multiply(BigInteger.valueOf(deltaT))
+                .divideAndRemainder(BigInteger.valueOf(SECOND));
+        BigInteger q = qr[1].signum() < 0 ? qr[0].subtract(BigInteger.ONE) : qr[0];
+        return q.longValueExact();
+    }
+
+    @Test
+    void continuousIsExactUpToBothEndsOfTheLongRange() {
+        TimeAccelerator forward = TimeAccelerator.continuous(3);
+        assertEquals(Long.MAX_VALUE, forward.adjustNanos(Long.MAX_VALUE - 3 * 1000L, 1000));
+        assertEquals(Long.MIN_VALUE, forward.adjustNanos(Long.MIN_VALUE + 3 * 1000L, -1000));
+
+        TimeAccelerator backward = TimeAccelerator.continuous(-3);
+        assertEquals(Long.MIN_VALUE, backward.adjustNanos(Long.MIN_VALUE + 3 * 1000L, 1000));
+        assertEquals(Long.MAX_VALUE, backward.adjustNanos(Long.MAX_VALUE - 3 * 1000L, -1000));
+    }
+
+    @Test
+    void continuousThrowsJustOutsideTheLongRange() {
+        TimeAccelerator forward = TimeAccelerator.continuous(3);
+        assertThrows(ArithmeticException.class, () -> forward.adjustNanos(Long.MAX_VALUE - 3 * 1000L, 1001));
+        assertThrows(ArithmeticException.class, () -> forward.adjustNanos(Long.MIN_VALUE + 3 * 1000L, -1001));
+    }
+
+    @Test
+    void continuousIsExactWhenTheProductOverflowsButTheSumFits() {
+        //the product is below Long.MIN_VALUE, but the sum is in the range of a long
+        long t0 = Long.MAX_VALUE / 2;
+        long deltaT = Long.MAX_VALUE / 3;
+        TimeAccelerator backward = TimeAccelerator.continuous(-4);
+        long expected = BigInteger.valueOf(t0)
+                .add(BigInteger.valueOf(deltaT).multiply(BigInteger.valueOf(-4)))
+                .longValueExact();
+        assertEquals(expected, backward.adjustNanos(t0, deltaT));
+    }
+
+    @Test
+    void continuousPlaysBackwardsFrom2020To1707() {
+        ZonedDateTime from = ZonedDateTime.parse("2020-01-01T00:00:00Z");
+        ZonedDateTime to = ZonedDateTime.parse("1707-01-01T00:00:00Z");
+        int accFact = -1_000_000;
+        //more than 292 years, the offset doesn't fit in a long
+        long deltaT = Duration.between(to, from).dividedBy(-accFact).toNanos();
+
+        TimeAccelerator accelerator = TimeAccelerator.continuous(accFact);
+        long t0 = TimeAccelerator.epochNanos(from.toInstant());
+        long simulated = accelerator.adjustNanos(t0, deltaT);
+
+        assertEquals(TimeAccelerator.epochNanos(accelerator.adjust(from, deltaT).toInstant()), simulated);
+        assertEquals(to.getYear(), ofNanos(simulated).getYear());
+    }
+
+    @Test
+    void discreteCountsTheStepsOfNegativeRealTimes() {
+        TimeAccelerator accelerator = TimeAccelerator.discrete(Integer.MAX_VALUE, Duration.ofNanos(1));
+        long[] deltaTs = {-1, -SECOND + 1, -SECOND, -SECOND - 1, -123_456_789_123L, Long.MIN_VALUE / Integer.MAX_VALUE};
+        for (long deltaT : deltaTs) {
+            assertEquals(exactStepCount(Integer.MAX_VALUE, deltaT), accelerator.adjustNanos(0, deltaT));
+        }
+        assertEquals(-3, accelerator.adjustNanos(0, -1));
+    }
+
+    @Test
+    void discreteCountsTheStepsOfPositiveRealTimes() {
+        TimeAccelerator accelerator = TimeAccelerator.discrete(Integer.MAX_VALUE, Duration.ofNanos(1));
+        long[] deltaTs = {0, 1, SECOND - 1, SECOND, SECOND + 1, 123_456_789_123L, Long.MAX_VALUE / Integer.MAX_VALUE};
+        for (long deltaT : deltaTs) {
+            assertEquals(exactStepCount(Integer.MAX_VALUE, deltaT), accelerator.adjustNanos(0, deltaT));
+        }
+    }
+
+    @Test
+    void discreteFailsOnNonPositiveFrequencies() {
+        assertThrows(IllegalArgumentException.class, () -> TimeAccelerator.discrete(0, Duration.ofHours(1)));
+        assertThrows(IllegalArgumentException.class, () -> TimeAccelerator.discrete(-1, Duration.ofHours(1)));
+    }
+
+    @Test
+    void variableSumsItsSegments() {
+        TimeAccelerator accelerator = TimeAccelerator.variable(new long[]{SECOND, 3 * SECOND}, new int[]{10, -2, 100});
+        assertEquals(0, accelerator.adjustNanos(0, 0));
+        assertEquals(5 * SECOND, accelerator.adjustNanos(0, SECOND / 2));
+        assertEquals(10 * SECOND, accelerator.adjustNanos(0, SECOND));
+        assertEquals(10 * SECOND - 2 * SECOND, accelerator.adjustNanos(0, 2 * SECOND));
+        assertEquals(10 * SECOND - 4 * SECOND, accelerator.adjustNanos(0, 3 * SECOND));
+        assertEquals(10 * SECOND - 4 * SECOND + 100 * SECOND, accelerator.adjustNanos(0, 4 * SECOND));
+    }
+
+    @Test
+    void variableUsesTheFirstFactorBeforeTheStart() {
+        TimeAccelerator accelerator = TimeAccelerator.variable(new long[]{SECOND}, new int[]{10, -2});
+        assertEquals(-10 * SECOND, accelerator.adjustNanos(0, -SECOND));
+        assertEquals(-10, accelerator.adjustNanos(0, -1));
+
+        //a change before the start doesn't apply to the negative real times
+        TimeAccelerator early = TimeAccelerator.variable(new long[]{-SECOND}, new int[]{10, -2});
+        assertEquals(-20 * SECOND, early.adjustNanos(0, -2 * SECOND));
+        assertEquals(-2 * SECOND, early.adjustNanos(0, SECOND));
+    }
+
+    @Test
+    void variableFailsOnInvalidChanges() {
+        assertThrows(IllegalArgumentException.class,
+                () -> TimeAccelerator.variable(new long[]{SECOND}, new int[]{1}));
+        assertThrows(IllegalArgumentException.class,
+                () -> TimeAccelerator.variable(new long[]{2 * SECOND, SECOND}, new int[]{1, 2, 3}));
+    }
+
+    @Test
+    void epochNanosThrowsOutsideTheYears1677To2262() {
+        assertEquals(0, TimeAccelerator.epochNanos(Instant.EPOCH));
+        TimeAccelerator.epochNanos(Instant.parse("1677-09-22T00:00:00Z"));
+        TimeAccelerator.epochNanos(Instant.parse("2262-04-11T00:00:00Z"));
+        assertThrows(ArithmeticException.class,
+                () -> TimeAccelerator.epochNanos(Instant.parse("1677-09-21T00:00:00Z")));
+        assertThrows(ArithmeticException.class,
+                () -> TimeAccelerator.epochNanos(Instant.parse("2262-04-12T00:00:00Z")));
+    }
+
+    @Test
+    void epochNanosOfDateTimesKeepTheirInstantAndZone() {
+        ZonedDateTime[] whens = {
+                T0,
+                ZonedDateTime.parse("1969-12-31T23:59:59.999999999Z"),
+                ZonedDateTime.parse("2020-03-29T03:30:00.123456789+02:00[Europe/Zurich]"),
+                ZonedDateTime.parse("1677-09-22T00:00:00-05:00[America/New_York]")
+        };
+        for (ZonedDateTime when : whens) {
+            long nanos = TimeAccelerator.epochNanos(when);
+            assertEquals(TimeAccelerator.epochNanos(when.toInstant()), nanos);
+            assertEquals(when, TimeAccelerator.ofEpochNanos(nanos, when.getZone()));
+        }
+        assertThrows(ArithmeticException.class,
+                () -> TimeAccelerator.epochNanos(ZonedDateTime.parse("2262-04-12T00:00:00Z")));
+    }
+
+    @Test
+    void adjustNanosThrowsWhenTheSimulatedTimeLeavesTheRange() {
+        long t0 = TimeAccelerator.epochNanos(T0.toInstant());
+        assertThrows(ArithmeticException.class, () -> TimeAccelerator.continuous(1000).adjustNanos(t0, 365L * 86_400 * SECOND));
+        assertThrows(ArithmeticException.class, () -> TimeAccelerator.continuous(-1000).adjustNanos(t0, 365L * 86_400 * SECOND));
+        assertThrows(ArithmeticException.class,
+                () -> TimeAccelerator.discrete(1, Duration.ofDays(365 * 300)).adjustNanos(t0, SECOND));
+        assertThrows(ArithmeticException.class,
+                () -> TimeAccelerator.variable(new long[0], new int[]{1000}).adjustNanos(t0, 365L * 86_400 * SECOND));
+    }
+
+    @Test
+    void adjustNanosIsAdjustWhenTheResultFits() {
+        TimeAccelerator[] accelerators = {
+                TimeAccelerator.continuous(1),
+                TimeAccelerator.continuous(300),
+                TimeAccelerator.continuous(-3000),
+                TimeAccelerator.discrete(10, Duration.ofHours(1)),
+                TimeAccelerator.discrete(60, Duration.ofDays(-1)),
+                TimeAccelerator.discrete(Integer.MAX_VALUE, Duration.ofNanos(7)),
+                TimeAccelerator.variable(new long[]{SECOND, 2 * SECOND}, new int[]{1, 3000, -60}),
+                (t, deltaT) -> t.plusSeconds(deltaT / SECOND * 86_400)
+        };
+        long t0 = TimeAccelerator.epochNanos(T0.toInstant());
+        long[] deltaTs = {-5 * SECOND, -SECOND / 3, -1, 0, 1, SECOND / 60, SECOND, 7 * SECOND / 2, 60 * SECOND};
+        for (TimeAccelerator accelerator : accelerators) {
+            for (long deltaT : deltaTs) {
+                assertEquals(TimeAccelerator.epochNanos(accelerator.adjust(T0, deltaT).toInstant()),
+                        accelerator.adjustNanos(t0, deltaT));
+            }
+        }
+    }
+}
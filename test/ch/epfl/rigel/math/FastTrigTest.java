@@ -0,0 +1,126 @@
+package ch.epfl.rigel.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FastTrigTest {
+
+    private final static double DELTA = 1e-15;
+    private final static int COUNT = 100_000;
+
+    @Test
+    void batchAtan2IsMathAtan2() {
+        Random random = new Random(2020);
+        double[] ys = new double[COUNT], xs = new double[COUNT], angles = new double[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            //magnitudes from 1e-6 to 1e6, so that all the octants and both ranges of atan are reached
+            ys[i] = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(13) - 6);
+            xs[i] = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(13) - 6);
+        }
+        FastTrig.atan2(ys, xs, angles, 0, COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(Math.atan2(ys[i], xs[i]), angles[i], 2 * DELTA);
+        }
+    }
+
+    @Test
+    void batchAtan2IsMathAtan2OnTheAxesAndTheDiagonals() {
+        double[] ys = {0.0, -0.0, 0.0, -0.0, 1, -1, 0, 0, 2, -2, 2, -2, 3, 0.66, -1.5};
+        double[] xs = {0.0, 0.0, -0.0, -0.0, 0, 0, 1, -1, 2, 2, -2, -2, 3 / 0.66, 1, -1.5 / 0.66};
+        double[] angles = new double[ys.length];
+        FastTrig.atan2(ys, xs, angles, 0, ys.length);
+        for (int i = 0; i < ys.length; i++) {
+            assertEquals(Math.atan2(ys[i], xs[i]), angles[i], DELTA);
+            assertEquals(Math.copySign(1, Math.atan2(ys[i], xs[i])), Math.copySign(1, angles[i]));
+        }
+    }
+
+    @Test
+    void batchAtan2IsScalarAtan2() {
+        Random random = new Random(108);
+        double[] ys = new double[COUNT], xs = new double[COUNT], angles = new double[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            ys[i] = random.nextGaussian();
+            xs[i] = random.nextGaussian();
+        }
+        FastTrig.atan2(ys, xs, angles, 0, COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(FastTrig.atan2(ys[i], xs[i]), angles[i], 2 * DELTA);
+        }
+    }
+
+    @Test
+    void batchAsinIsMathAsin() {
+        Random random = new Random(2020);
+        double[] values = new double[COUNT + 5];
+        for (int i = 0; i < COUNT; i++) {
+            values[i] = 2 * random.nextDouble() - 1;
+        }
+        double[] bounds = {-1, 1, 0, -0.0, 0.5};
+        System.arraycopy(bounds, 0, values, COUNT, bounds.length);
+
+        double[] angles = values.clone();
+        FastTrig.asin(angles, angles, 0, angles.length);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(Math.asin(values[i]), angles[i], 2 * DELTA);
+        }
+    }
+
+    @Test
+    void batchMethodsOnlyWriteTheirRange() {
+        double[] values = {0.5, 0.5, 0.5, 0.5};
+        double[] angles = {7, 7, 7, 7};
+        FastTrig.asin(values, angles, 1, 3);
+        assertEquals(7, angles[0]);
+        assertEquals(Math.asin(0.5), angles[1], DELTA);
+        assertEquals(Math.asin(0.5), angles[2], DELTA);
+        assertEquals(7, angles[3]);
+    }
+
+    @Test
+    void batchSinCosIsMathSinCos() {
+        Random random = new Random(2020);
+        double[] angles = new double[COUNT + 16];
+        for (int i = 0; i < COUNT; i++) {
+            angles[i] = 20 * random.nextDouble() - 10;
+        }
+        //the limits of the quadrants, where the reduction changes its multiple of pi/2
+        for (int i = 0; i < 16; i++) {
+            angles[COUNT + i] = (i - 8) * Math.PI / 4;
+        }
+        double[] sines = new double[angles.length], cosines = new double[angles.length];
+        FastTrig.sinCos(angles, sines, cosines, 0, angles.length);
+        for (int i = 0; i < angles.length; i++) {
+            assertEquals(Math.sin(angles[i]), sines[i], 2 * DELTA);
+            assertEquals(Math.cos(angles[i]), cosines[i], 2 * DELTA);
+        }
+    }
+
+    @Test
+    void vectorLanesAndLastValuesGiveTheSameResults() {
+        double[] ys = {0.0, -0.0, 0.0, -0.0, 1, -1, 0, 0, 2, -2, 2, -2, 3, 0.66, -1.5, 1e-300, -7, 0.25};
+        double[] xs = {0.0, 0.0, -0.0, -0.0, 0, 0, 1, -1, 2, 2, -2, -2, 3 / 0.66, 1, -1.5 / 0.66, -1e-300, 3, -1};
+        double[] values = {-1, 1, 0, -0.0, 0.5, -0.5, 1e-300, 0.999, -0.999, 0.66, 0.1, -0.3, 0.7, 0.2, -0.9, 0.01, 0.4, -1};
+        double[] angles = {0, -0.0, Math.PI / 4, -Math.PI / 4, Math.PI / 2, Math.PI, -Math.PI, 3, 5, -5, 100, -100,
+                1e-9, 0.785, 2.356, 4.712, 6.283, -3.141};
+        //every value is computed both in a vector, with all the values, and alone, after the vectors
+        double[] atan2s = new double[ys.length], asins = new double[ys.length];
+        double[] sines = new double[ys.length], cosines = new double[ys.length];
+        FastTrig.atan2(ys, xs, atan2s, 0, ys.length);
+        FastTrig.asin(values, asins, 0, ys.length);
+        FastTrig.sinCos(angles, sines, cosines, 0, ys.length);
+        double[] alone = new double[ys.length], aloneCosines = new double[ys.length];
+        for (int i = 0; i < ys.length; i++) {
+            FastTrig.atan2(ys, xs, alone, i, i + 1);
+            assertEquals(Double.doubleToRawLongBits(alone[i]), Double.doubleToRawLongBits(atan2s[i]));
+            FastTrig.asin(values, alone, i, i + 1);
+            assertEquals(Double.doubleToRawLongBits(alone[i]), Double.doubleToRawLongBits(asins[i]));
+            FastTrig.sinCos(angles, alone, aloneCosines, i, i + 1);
+            assertEquals(Double.doubleToRawLongBits(alone[i]), Double.doubleToRawLongBits(sines[i]));
+            assertEquals(Double.doubleToRawLongBits(aloneCosines[i]), Double.doubleToRawLongBits(cosines[i]));
+        }
+    }
+}
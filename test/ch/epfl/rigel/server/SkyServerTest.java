@@ -0,0 +1,136 @@
+package ch.epfl.rigel.server;
+
+import ch.epfl.rigel.astronomy.Star;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SkyServerTest {
+
+    private final static String QUERY = "?time=2020-04-17T21:00:00%2B02:00&lon=6.57&lat=46.52&az=180&alt=45&fov=100"
+            + "&width=200&height=150";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private SkyServer server;
+
+    private static StarCatalogue catalogue() {
+        StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        for (int i = 0; i < 100; i++) {
+            builder.addStar(new Star(i, "Star " + i, EquatorialCoordinates.of(i * 0.0628, i * 0.0157 - 0.78),
+                    (float) (i % 7), (float) (i % 5 * 0.4)));
+        }
+        return builder.build();
+    }
+
+    private HttpResponse<byte[]> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String text(HttpResponse<byte[]> response) {
+        return new String(response.body(), StandardCharsets.UTF_8);
+    }
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new SkyServer(catalogue(), 0, 16);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    void serverListensOnAnEphemeralPort() {
+        assertTrue(server.port() > 0);
+    }
+
+    @Test
+    void eachEndpointMissesThenHitsTheCache() throws IOException, InterruptedException {
+        String[][] endpoints = {{"/objects", "application/json"}, {"/positions", "application/json"},
+                {"/sky.png", "image/png"}};
+        for (String[] endpoint : endpoints) {
+            HttpResponse<byte[]> first = get(endpoint[0] + QUERY);
+            assertEquals(200, first.statusCode());
+            assertEquals("MISS", first.headers().firstValue("X-Cache").orElseThrow());
+            assertEquals(endpoint[1], first.headers().firstValue("Content-Type").orElseThrow());
+
+            HttpResponse<byte[]> second = get(endpoint[0] + QUERY);
+            assertEquals(200, second.statusCode());
+            assertEquals("HIT", second.headers().firstValue("X-Cache").orElseThrow());
+            assertArrayEquals(first.body(), second.body());
+        }
+        assertEquals(6, server.requests());
+        assertEquals(3, server.cacheHits());
+    }
+
+    @Test
+    void closeRequestsShareTheCachedResponse() throws IOException, InterruptedException {
+        assertEquals("MISS", get("/positions" + QUERY).headers().firstValue("X-Cache").orElseThrow());
+        String close = QUERY.replace("21:00:00", "21:00:30").replace("lon=6.57", "lon=6.58");
+        assertEquals("HIT", get("/positions" + close).headers().firstValue("X-Cache").orElseThrow());
+    }
+
+    @Test
+    void positionsListTheProjectedObjects() throws IOException, InterruptedException {
+        String body = text(get("/positions" + QUERY));
+        assertTrue(body.startsWith("{\"sun\":["));
+        assertTrue(body.contains("\"planets\":["));
+        assertTrue(body.contains("\"stars\":["));
+    }
+
+    @Test
+    void invalidQueriesAreBadRequests() throws IOException, InterruptedException {
+        assertEquals(400, get("/objects?time=yesterday").statusCode());
+        assertEquals(400, get("/objects?lat=abc").statusCode());
+        assertEquals(400, get("/positions?lat=100").statusCode());
+        assertEquals(400, get("/sky.png?width=wide").statusCode());
+        assertEquals(0, server.errors());
+    }
+
+    @Test
+    void internalErrorsAreAnsweredAndCounted() throws IOException, InterruptedException {
+        server.stop();
+        //without a catalogue, every computation of the sky fails
+        server = new SkyServer(null, 0, 16);
+        server.start();
+
+        HttpResponse<byte[]> response = get("/objects" + QUERY);
+        assertEquals(500, response.statusCode());
+        assertEquals(500, get("/sky.png" + QUERY).statusCode());
+        assertEquals(2, server.errors());
+        assertEquals(2, server.requests());
+        assertTrue(text(get("/metrics")).contains("errors 2\n"));
+    }
+
+    @Test
+    void metricsCountTheRequestsAndTheHits() throws IOException, InterruptedException {
+        get("/objects" + QUERY);
+        get("/objects" + QUERY);
+        get("/objects?lat=abc");
+
+        HttpResponse<byte[]> metrics = get("/metrics");
+        assertEquals(200, metrics.statusCode());
+        assertEquals("text/plain", metrics.headers().firstValue("Content-Type").orElseThrow());
+        String report = text(metrics);
+        assertTrue(report.contains("requests 3\n"));
+        assertTrue(report.contains("errors 0\n"));
+        assertTrue(report.contains("cache_hits 1\n"));
+        assertTrue(report.contains("cache_size 1\n"));
+    }
+}